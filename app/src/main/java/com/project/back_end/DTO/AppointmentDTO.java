@@ -1,5 +1,9 @@
 package com.project.back_end.DTO;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
 public class AppointmentDTO {
 
     private final Long id;
@@ -12,6 +16,7 @@ public class AppointmentDTO {
     private final String patientAddress;
     private final LocalDateTime appointmentTime;
     private final int status; // 0 = Scheduled, 1 = Completed, etc.
+    private final Long version; // optimistic-lock version; send it back with a reschedule
 
     // Derived fields
     private final LocalDate appointmentDate;
@@ -22,7 +27,7 @@ public class AppointmentDTO {
     public AppointmentDTO(Long id, Long doctorId, String doctorName,
                           Long patientId, String patientName, String patientEmail,
                           String patientPhone, String patientAddress,
-                          LocalDateTime appointmentTime, int status) {
+                          LocalDateTime appointmentTime, int status, Long version) {
         this.id = id;
         this.doctorId = doctorId;
         this.doctorName = doctorName;
@@ -33,6 +38,7 @@ public class AppointmentDTO {
         this.patientAddress = patientAddress;
         this.appointmentTime = appointmentTime;
         this.status = status;
+        this.version = version;
 
         // Derived fields
         this.appointmentDate = appointmentTime.toLocalDate();
@@ -51,6 +57,7 @@ public class AppointmentDTO {
     public String getPatientAddress() { return patientAddress; }
     public LocalDateTime getAppointmentTime() { return appointmentTime; }
     public int getStatus() { return status; }
+    public Long getVersion() { return version; }
     public LocalDate getAppointmentDate() { return appointmentDate; }
     public LocalTime getAppointmentTimeOnly() { return appointmentTimeOnly; }
     public LocalDateTime getEndTime() { return endTime; }
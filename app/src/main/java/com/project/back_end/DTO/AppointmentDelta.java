@@ -0,0 +1,17 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change to a doctor's calendar, pushed to open dashboards by {@code AppointmentFeed}.
+ *
+ * type is "booked", "updated" (rescheduled), "status" (status changed, same time) or
+ * "cancelled". appointment is the row as it reads after the change, null for "cancelled".
+ * previousAppointmentTime is the time before a reschedule, or the time of the cancelled
+ * appointment; null otherwise.
+ */
+public record AppointmentDelta(String type,
+                               Long appointmentId,
+                               LocalDateTime previousAppointmentTime,
+                               AppointmentDTO appointment) {
+}
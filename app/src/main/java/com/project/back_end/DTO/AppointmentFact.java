@@ -0,0 +1,10 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * The three columns the report rollups are built from
+ * (see {@code AppointmentRepository#streamAppointmentFacts}).
+ */
+public record AppointmentFact(Long doctorId, Long patientId, LocalDateTime appointmentTime) {
+}
@@ -0,0 +1,10 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated appointment listing (see {@code AppointmentService#getAppointmentPage}).
+ * {@code nextCursor} is opaque; pass it back to get the following page, null on the last page.
+ */
+public record AppointmentPage(List<AppointmentDTO> appointments, String nextCursor) {
+}
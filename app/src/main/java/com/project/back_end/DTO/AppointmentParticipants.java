@@ -0,0 +1,8 @@
+package com.project.back_end.DTO;
+
+/**
+ * Doctor and patient of one appointment (see {@code AppointmentRepository#findParticipantsByIds}),
+ * copied onto the prescriptions written for it.
+ */
+public record AppointmentParticipants(Long appointmentId, Long doctorId, Long patientId) {
+}
@@ -0,0 +1,9 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * One item of a batch booking (POST /appointments/batch).
+ */
+public record BookingRequest(Long doctorId, Long patientId, LocalDateTime appointmentTime) {
+}
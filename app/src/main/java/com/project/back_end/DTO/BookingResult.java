@@ -0,0 +1,16 @@
+package com.project.back_end.DTO;
+
+/**
+ * Outcome of one batch booking item, reported at the item's position in the request.
+ * {@code appointmentId} is set only when {@code booked} is true.
+ */
+public record BookingResult(int index, boolean booked, Long appointmentId, String message) {
+
+    public static BookingResult booked(int index, Long appointmentId) {
+        return new BookingResult(index, true, appointmentId, "Appointment booked successfully");
+    }
+
+    public static BookingResult rejected(int index, String message) {
+        return new BookingResult(index, false, null, message);
+    }
+}
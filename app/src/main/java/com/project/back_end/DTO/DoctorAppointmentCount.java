@@ -0,0 +1,8 @@
+package com.project.back_end.DTO;
+
+/**
+ * Daily report row: appointments per doctor in a time range
+ * (see {@code AppointmentRepository#countAppointmentsByDoctor}).
+ */
+public record DoctorAppointmentCount(Long doctorId, String doctorName, long appointments) {
+}
@@ -0,0 +1,16 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+/**
+ * Doctor card row answered by {@code DoctorSearchIndex#search}: the columns a doctor card renders,
+ * plus the availability slots. Built once when the doctor is indexed and shared by every search,
+ * so it holds copies rather than the cached entity.
+ */
+public record DoctorListing(Long id, String name, String specialty, String email, String phone,
+                            List<String> availableTimes) {
+
+    public DoctorListing {
+        availableTimes = availableTimes == null ? List.of() : List.copyOf(availableTimes);
+    }
+}
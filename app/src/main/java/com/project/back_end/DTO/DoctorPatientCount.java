@@ -0,0 +1,8 @@
+package com.project.back_end.DTO;
+
+/**
+ * Top-doctor report row: distinct patients seen by a doctor in a time range
+ * (see {@code AppointmentRepository#countDistinctPatientsByDoctor}).
+ */
+public record DoctorPatientCount(Long doctorId, String doctorName, long distinctPatients) {
+}
@@ -0,0 +1,9 @@
+package com.project.back_end.DTO;
+
+/**
+ * Doctor list row: the columns the dashboards render, filled by a JPQL
+ * constructor expression in {@code DoctorRepository#findSummaries}. version is what an
+ * edit sends back to {@code PUT /doctor/profiles/{id}}.
+ */
+public record DoctorSummary(Long id, String name, String specialty, String email, String phone, Long version) {
+}
@@ -0,0 +1,20 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+/**
+ * Outcome of one prescription import (see {@code PrescriptionImporter}): lines read,
+ * documents inserted and rejected, throughput, and the first rejects with their line
+ * numbers (capped, so a bad file cannot grow the report without bound).
+ */
+public record ImportReport(long lines,
+                           long inserted,
+                           long rejected,
+                           double seconds,
+                           double documentsPerSecond,
+                           List<Reject> sampleRejects) {
+
+    /** One rejected line: 1-based line number in the uploaded file and the reason. */
+    public record Reject(long line, String reason) {
+    }
+}
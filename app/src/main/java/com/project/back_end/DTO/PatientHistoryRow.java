@@ -0,0 +1,15 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import com.project.back_end.models.Prescription;
+
+/**
+ * One line of a patient history export: the appointment's {@link AppointmentDTO} fields
+ * inlined, plus the prescriptions written for it. Prescriptions whose appointment no
+ * longer exists in MySQL are exported on their own line with no appointment fields.
+ */
+public record PatientHistoryRow(@JsonUnwrapped AppointmentDTO appointment, List<Prescription> prescriptions) {
+}
@@ -0,0 +1,21 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+import com.project.back_end.models.Prescription;
+
+/**
+ * A doctor's view of one patient, joined from both stores by {@code PatientRecordService}:
+ * the patient profile and the doctor's appointments with them (MySQL) and the prescriptions
+ * the doctor wrote, keyed by appointment id (MongoDB).
+ *
+ * When a store did not answer in time its fields are null, {@code partial} is true and
+ * {@code missing} names the section ("appointments" or "prescriptions").
+ */
+public record PatientRecord(PatientSummary patient,
+                            List<AppointmentDTO> appointments,
+                            Map<Long, List<Prescription>> prescriptions,
+                            boolean partial,
+                            List<String> missing) {
+}
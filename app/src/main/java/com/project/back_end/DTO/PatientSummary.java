@@ -0,0 +1,13 @@
+package com.project.back_end.DTO;
+
+/**
+ * Patient profile projection: Spring Data selects only these columns
+ * (see {@code PatientRepository#findSummaryById}), so the password hash is never read.
+ */
+public interface PatientSummary {
+    Long getId();
+    String getName();
+    String getEmail();
+    String getPhone();
+    String getAddress();
+}
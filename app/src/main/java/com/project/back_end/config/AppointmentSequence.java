@@ -0,0 +1,55 @@
+package com.project.back_end.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+import com.project.back_end.models.Appointment;
+
+/**
+ * Keeps the appointment id sequence above the ids already in the table. On MySQL Hibernate
+ * emulates {@code appointment_seq} with a one-row table that ddl-auto=update creates at 1, so
+ * a database whose appointments were numbered by AUTO_INCREMENT would otherwise hand out ids
+ * that already exist. Runs before the web server accepts requests; the update only ever raises
+ * the counter, so nodes starting together (or after ids were allocated) cannot move it back.
+ */
+@Component
+public class AppointmentSequence {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentSequence.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory is taken so the schema update (which creates the table) has run first
+    public AppointmentSequence(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void seed() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (database == null || !database.toLowerCase(Locale.ROOT).matches(".*(mysql|mariadb).*")) {
+            // native sequences: created with the schema, nothing was numbered by AUTO_INCREMENT before them
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM appointments", Long.class);
+        if (maxId == null || maxId == 0) {
+            return;
+        }
+        // The pooled optimizer hands out (next_val - allocation, next_val], so the whole first block must clear MAX(id)
+        long floor = maxId + Appointment.ID_ALLOCATION;
+        int raised = jdbcTemplate.update("UPDATE " + Appointment.ID_SEQUENCE + " SET next_val = ? WHERE next_val < ?",
+                floor, floor);
+        if (raised > 0) {
+            log.info("Raised {} to {} (MAX(appointments.id) = {})", Appointment.ID_SEQUENCE, floor, maxId);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.back_end.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Enables {@code @Async}. Methods run on Spring Boot's {@code applicationTaskExecutor}:
+ * a bounded platform-thread pool by default, virtual threads when
+ * {@code spring.threads.virtual.enabled=true} (see application-virtual.properties).
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
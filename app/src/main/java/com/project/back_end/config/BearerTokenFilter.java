@@ -0,0 +1,76 @@
+package com.project.back_end.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import com.project.back_end.services.TokenService;
+import com.project.back_end.services.VerifiedPrincipal;
+
+/**
+ * Stateless request authentication for the REST API.
+ *
+ * Reads {@code Authorization: Bearer <jwt>}, verifies it once through
+ * {@link TokenService#verify} and stores the resulting {@link VerifiedPrincipal}
+ * under {@link #PRINCIPAL_ATTRIBUTE}. Requests without a valid token are answered
+ * with 401 here, before any controller runs or any request body is read.
+ * Controllers pick the principal up with {@code @RequestAttribute(PRINCIPAL_ATTRIBUTE)}
+ * and only check the role.
+ *
+ * Registered for the protected URL patterns in {@link WebConfig}.
+ */
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+    public static final String PRINCIPAL_ATTRIBUTE = "authenticatedPrincipal";
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public BearerTokenFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        // CORS preflight requests never carry credentials
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<VerifiedPrincipal> principal = tokenService.verify(bearerToken(request));
+        if (principal.isEmpty()) {
+            reject(response);
+            return;
+        }
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal.get());
+        chain.doFilter(request, response);
+    }
+
+    static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        return header.substring(BEARER.length()).trim();
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Invalid or expired token\"}");
+    }
+}
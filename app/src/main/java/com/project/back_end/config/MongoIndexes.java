@@ -0,0 +1,70 @@
+package com.project.back_end.config;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Prescription;
+
+/**
+ * Creates the MongoDB indexes the prescription queries rely on. Runs before the web
+ * server accepts requests because Spring Boot leaves annotation-driven index creation
+ * off; creating an index that already exists with the same definition is a no-op.
+ */
+@Component
+public class MongoIndexes {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexes.class);
+
+    static final String APPOINTMENT_ID = "appointment_id";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexes(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void createIndexes() {
+        IndexOperations prescriptions = mongoTemplate.indexOps(Prescription.class);
+        // PatientRecordService#getRecord (doctor's patient-record view)
+        prescriptions.ensureIndex(new Index()
+                .on("doctorId", Sort.Direction.ASC)
+                .on("patientId", Sort.Direction.ASC)
+                .named("doctor_patient"));
+        // PatientHistoryExport: one patient's prescriptions in appointment order, read from the index
+        prescriptions.ensureIndex(new Index()
+                .on("patientId", Sort.Direction.ASC)
+                .on("appointmentId", Sort.Direction.ASC)
+                .named("patient_appointment"));
+        createAppointmentIdIndex(prescriptions);
+    }
+
+    // One prescription per appointment: savePrescription inserts and relies on this index to reject
+    // a second one. Replaces the earlier non-unique index of the same name. If existing duplicates
+    // prevent the unique build, the plain index is restored (lookups stay fast) and the error is
+    // logged; saves are then unguarded until the duplicates are removed and the app restarted.
+    private void createAppointmentIdIndex(IndexOperations prescriptions) {
+        boolean nonUniqueExists = prescriptions.getIndexInfo().stream()
+                .anyMatch(index -> APPOINTMENT_ID.equals(index.getName()) && !index.isUnique());
+        if (nonUniqueExists) {
+            prescriptions.dropIndex(APPOINTMENT_ID);
+        }
+        Index appointmentId = new Index().on("appointmentId", Sort.Direction.ASC).named(APPOINTMENT_ID);
+        try {
+            prescriptions.ensureIndex(appointmentId.unique());
+        } catch (DataAccessException ex) {
+            log.error("Cannot create unique index {} on prescriptions; remove duplicate appointmentId documents "
+                    + "(db.prescriptions.aggregate([{$group: {_id: '$appointmentId', n: {$sum: 1}}}, {$match: {n: {$gt: 1}}}]))",
+                    APPOINTMENT_ID, ex);
+            prescriptions.ensureIndex(new Index().on("appointmentId", Sort.Direction.ASC).named(APPOINTMENT_ID));
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.project.back_end.config;
 
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull; 
 
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.project.back_end.services.TokenService;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
@@ -18,4 +22,16 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE")  // Specify allowed methods
                 .allowedHeaders("*");  // You can restrict headers if needed
     }
+
+    // Bearer authentication for the token-protected REST endpoints (logins and dashboards pages stay open)
+    @Bean
+    public FilterRegistrationBean<BearerTokenFilter> bearerTokenFilter(TokenService tokenService) {
+        FilterRegistrationBean<BearerTokenFilter> registration =
+                new FilterRegistrationBean<>(new BearerTokenFilter(tokenService));
+        registration.addUrlPatterns("/appointments/*", "/prescription/*", "/patient/me", "/patient/history",
+                "/patient/appointments", "/patient/appointments/*",
+                "/reports/*", "/doctor/patients/*", "/doctor/profiles/*");
+        registration.setOrder(1);
+        return registration;
+    }
 }
@@ -1,27 +1,31 @@
-
 package com.project.back_end.controllers;
 
-public class AdminController {
-
-// 1. Set Up the Controller Class:
-//    - Annotate the class with `@RestController` to indicate that it's a REST controller, used to handle web requests and return JSON responses.
-//    - Use `@RequestMapping("${api.path}admin")` to define a base path for all endpoints in this controller.
-//    - This allows the use of an external property (`api.path`) for flexible configuration of endpoint paths.
+import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
 
-// 2. Autowire Service Dependency:
-//    - Use constructor injection to autowire the `Service` class.
-//    - The service handles core logic related to admin validation and token checking.
-//    - This promotes cleaner code and separation of concerns between the controller and business logic layer.
+import java.util.concurrent.CompletableFuture;
 
+import com.project.back_end.models.Admin;
+import com.project.back_end.services.Service;
 
-// 3. Define the `adminLogin` Method:
-//    - Handles HTTP POST requests for admin login functionality.
-//    - Accepts an `Admin` object in the request body, which contains login credentials.
-//    - Delegates authentication logic to the `validateAdmin` method in the service layer.
-//    - Returns a `ResponseEntity` with a `Map` containing login status or messages.
+@RestController
+@RequestMapping("${api.path}admin")
+public class AdminController {
 
+    private final Service service;
 
+    public AdminController(Service service) {
+        this.service = service;
+    }
 
+    // adminLogin: the password check completes on the hashing pool; returning the future frees the Tomcat thread
+    @PostMapping
+    public CompletableFuture<ResponseEntity<?>> adminLogin(@RequestBody Admin admin, HttpServletRequest request) {
+        return service.validateAdmin(admin.getUsername(), admin.getPassword(), request.getRemoteAddr());
+    }
 }
-
@@ -1,48 +1,197 @@
 package com.project.back_end.controllers;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-public class AppointmentController {
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
-// 1. Set Up the Controller Class:
-//    - Annotate the class with `@RestController` to define it as a REST API controller.
-//    - Use `@RequestMapping("/appointments")` to set a base path for all appointment-related endpoints.
-//    - This centralizes all routes that deal with booking, updating, retrieving, and canceling appointments.
+import com.project.back_end.DTO.BookingRequest;
+import com.project.back_end.DTO.BookingResult;
+import com.project.back_end.config.BearerTokenFilter;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.services.AppointmentFeed;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.ResourceVersions;
+import com.project.back_end.services.VerifiedPrincipal;
 
+/**
+ * Booking, rescheduling, cancelling and listing appointments.
+ *
+ * Every route sits behind {@link BearerTokenFilter}: the caller is already
+ * authenticated from the Authorization header when a handler runs, so handlers
+ * only check the role and use the principal's id.
+ */
+@RestController
+@RequestMapping("/appointments")
+public class AppointmentController {
 
-// 2. Autowire Dependencies:
-//    - Inject `AppointmentService` for handling the business logic specific to appointments.
-//    - Inject the general `Service` class, which provides shared functionality like token validation and appointment checks.
+    private final AppointmentService appointmentService;
+    private final AppointmentFeed appointmentFeed;
+    private final ResourceVersions versions;
+    private final int maxBatchItems;
+    private final int maxPageSize;
 
+    public AppointmentController(AppointmentService appointmentService,
+                                 AppointmentFeed appointmentFeed,
+                                 ResourceVersions versions,
+                                 @Value("${appointments.batch.max-items:500}") int maxBatchItems,
+                                 @Value("${appointments.page.max-size:200}") int maxPageSize) {
+        this.appointmentService = appointmentService;
+        this.appointmentFeed = appointmentFeed;
+        this.versions = versions;
+        this.maxBatchItems = maxBatchItems;
+        this.maxPageSize = maxPageSize;
+    }
 
-// 3. Define the `getAppointments` Method:
-//    - Handles HTTP GET requests to fetch appointments based on date and patient name.
-//    - Takes the appointment date, patient name, and token as path variables.
-//    - First validates the token for role `"doctor"` using the `Service`.
-//    - If the token is valid, returns appointments for the given patient on the specified date.
-//    - If the token is invalid or expired, responds with the appropriate message and status code.
+    // 3) getAppointments: the calling doctor's appointments on a date, optionally filtered by patient name.
+    // Tagged with the doctor-day version: a matching If-None-Match gets 304 before any query runs
+    @GetMapping("/{date}/{patientName}")
+    public ResponseEntity<?> getAppointments(@PathVariable("date") LocalDate date,
+                                             @PathVariable("patientName") String patientName,
+                                             @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal,
+                                             WebRequest request) {
+        if (!principal.hasRole("doctor")) {
+            return unauthorized();
+        }
+        String etag = versions.appointmentsTag(principal.getId(), date);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                .body(appointmentService.getAppointments(patientName, date, principal.getId()));
+    }
 
+    // 3b) listAppointments: keyset-paginated listing over a date range (from..to inclusive, default today),
+    // optionally filtered by patient name. Doctors see their own calendar; admins pass ?doctorId= or see all.
+    // Returns {"appointments": [...], "nextCursor": "..."}; send nextCursor back as ?cursor= for the next page.
+    @GetMapping
+    public ResponseEntity<?> listAppointments(@RequestParam(value = "doctorId", required = false) Long doctorId,
+                                              @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              @RequestParam(value = "patientName", required = false) String patientName,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              @RequestParam(value = "size", defaultValue = "50") int size,
+                                              @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (principal.hasRole("doctor")) {
+            doctorId = principal.getId();
+        } else if (!principal.hasRole("admin")) {
+            return unauthorized();
+        }
+        LocalDate first = from != null ? from : LocalDate.now();
+        LocalDate last = to != null ? to : first;
+        if (size < 1 || size > maxPageSize || last.isBefore(first)) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "size must be between 1 and " + maxPageSize + " and to must not be before from");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        try {
+            return ResponseEntity.ok(appointmentService.getAppointmentPage(doctorId, patientName, first, last, cursor, size));
+        } catch (IllegalArgumentException ex) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Invalid cursor");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
 
-// 4. Define the `bookAppointment` Method:
-//    - Handles HTTP POST requests to create a new appointment.
-//    - Accepts a validated `Appointment` object in the request body and a token as a path variable.
-//    - Validates the token for the `"patient"` role.
-//    - Uses service logic to validate the appointment data (e.g., check for doctor availability and time conflicts).
-//    - Returns success if booked, or appropriate error messages if the doctor ID is invalid or the slot is already taken.
+    // 3c) streamChanges: server-sent events of the calling doctor's booking/update/status/cancel deltas
+    // (see AppointmentFeed). "ready" first, then one event per committed change; on "resync" reload the list
+    @GetMapping("/stream")
+    public ResponseEntity<?> streamChanges(@RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("doctor")) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(appointmentFeed.subscribe(principal.getId()));
+    }
 
+    // 4) bookAppointment: a patient books a slot for themselves; the availability/clash check and the insert
+    // run under the doctor-slot locks in AppointmentService (409 when the slot is already taken).
+    // Only the doctor id and the time are taken from the body; the patient is the caller
+    @PostMapping
+    public ResponseEntity<Map<String, String>> bookAppointment(@Validated(Appointment.Scheduling.class) @RequestBody Appointment appointment,
+                                                               @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("patient")
+                || appointment.getPatient() == null
+                || !Objects.equals(appointment.getPatient().getId(), principal.getId())) {
+            return unauthorized();
+        }
+        if (appointment.getDoctor() == null || appointment.getDoctor().getId() == null) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Invalid doctor id");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        return appointmentService.bookAppointment(appointment, principal.getId());
+    }
 
-// 5. Define the `updateAppointment` Method:
-//    - Handles HTTP PUT requests to modify an existing appointment.
-//    - Accepts a validated `Appointment` object and a token as input.
-//    - Validates the token for `"patient"` role.
-//    - Delegates the update logic to the `AppointmentService`.
-//    - Returns an appropriate success or failure response based on the update result.
+    // 4b) bookAppointments: front-desk bulk scheduling in one request and one transaction.
+    // Admins may book any doctor/patient, doctors only their own calendar, patients only for themselves.
+    // 200 with one result per item (rejected items do not stop the others), 400 if the batch is empty or too large.
+    @PostMapping("/batch")
+    public ResponseEntity<?> bookAppointments(@RequestBody List<BookingRequest> requests,
+                                              @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("admin") && !principal.hasRole("doctor") && !principal.hasRole("patient")) {
+            return unauthorized();
+        }
+        if (requests == null || requests.isEmpty() || requests.size() > maxBatchItems) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "A batch must contain between 1 and " + maxBatchItems + " appointments");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
 
+        List<BookingResult> results = appointmentService.bookAppointments(requests, request ->
+                principal.hasRole("admin")
+                        || (principal.hasRole("doctor") && Objects.equals(request.doctorId(), principal.getId()))
+                        || (principal.hasRole("patient") && Objects.equals(request.patientId(), principal.getId())));
+        long booked = results.stream().filter(BookingResult::booked).count();
+        Map<String, Object> response = new HashMap<>();
+        response.put("booked", booked);
+        response.put("rejected", results.size() - booked);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
 
-// 6. Define the `cancelAppointment` Method:
-//    - Handles HTTP DELETE requests to cancel a specific appointment.
-//    - Accepts the appointment ID and a token as path variables.
-//    - Validates the token for `"patient"` role to ensure the user is authorized to cancel the appointment.
-//    - Calls `AppointmentService` to handle the cancellation process and returns the result.
+    // 5) updateAppointment: the owning patient reschedules
+    @PutMapping
+    public ResponseEntity<Map<String, String>> updateAppointment(@Validated(Appointment.Scheduling.class) @RequestBody Appointment appointment,
+                                                                 @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("patient")) {
+            return unauthorized();
+        }
+        return appointmentService.updateAppointment(appointment, principal.getId());
+    }
 
+    // 6) cancelAppointment: the owning patient cancels
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, String>> cancelAppointment(@PathVariable("id") long id,
+                                                                 @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("patient")) {
+            return unauthorized();
+        }
+        return appointmentService.cancelAppointment(id, principal.getId());
+    }
 
+    private static ResponseEntity<Map<String, String>> unauthorized() {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Unauthorized");
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+    }
 }
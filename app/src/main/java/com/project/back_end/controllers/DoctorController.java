@@ -1,61 +1,154 @@
 package com.project.back_end.controllers;
 
-
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.project.back_end.DTO.Login;
+import com.project.back_end.DTO.PatientRecord;
+import com.project.back_end.config.BearerTokenFilter;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.PatientRecordService;
+import com.project.back_end.services.ResourceVersions;
+import com.project.back_end.services.Service;
+import com.project.back_end.services.VerifiedPrincipal;
+
+// 1) REST controller for doctor functionality under ${api.path}doctor
+@RestController
+@RequestMapping("${api.path}doctor")
 public class DoctorController {
 
-// 1. Set Up the Controller Class:
-//    - Annotate the class with `@RestController` to define it as a REST controller that serves JSON responses.
-//    - Use `@RequestMapping("${api.path}doctor")` to prefix all endpoints with a configurable API path followed by "doctor".
-//    - This class manages doctor-related functionalities such as registration, login, updates, and availability.
-
-
-// 2. Autowire Dependencies:
-//    - Inject `DoctorService` for handling the core logic related to doctors (e.g., CRUD operations, authentication).
-//    - Inject the shared `Service` class for general-purpose features like token validation and filtering.
-
-
-// 3. Define the `getDoctorAvailability` Method:
-//    - Handles HTTP GET requests to check a specific doctor’s availability on a given date.
-//    - Requires `user` type, `doctorId`, `date`, and `token` as path variables.
-//    - First validates the token against the user type.
-//    - If the token is invalid, returns an error response; otherwise, returns the availability status for the doctor.
-
-
-// 4. Define the `getDoctor` Method:
-//    - Handles HTTP GET requests to retrieve a list of all doctors.
-//    - Returns the list within a response map under the key `"doctors"` with HTTP 200 OK status.
-
-
-// 5. Define the `saveDoctor` Method:
-//    - Handles HTTP POST requests to register a new doctor.
-//    - Accepts a validated `Doctor` object in the request body and a token for authorization.
-//    - Validates the token for the `"admin"` role before proceeding.
-//    - If the doctor already exists, returns a conflict response; otherwise, adds the doctor and returns a success message.
-
-
-// 6. Define the `doctorLogin` Method:
-//    - Handles HTTP POST requests for doctor login.
-//    - Accepts a validated `Login` DTO containing credentials.
-//    - Delegates authentication to the `DoctorService` and returns login status and token information.
-
-
-// 7. Define the `updateDoctor` Method:
-//    - Handles HTTP PUT requests to update an existing doctor's information.
-//    - Accepts a validated `Doctor` object and a token for authorization.
-//    - Token must belong to an `"admin"`.
-//    - If the doctor exists, updates the record and returns success; otherwise, returns not found or error messages.
-
-
-// 8. Define the `deleteDoctor` Method:
-//    - Handles HTTP DELETE requests to remove a doctor by ID.
-//    - Requires both doctor ID and an admin token as path variables.
-//    - If the doctor exists, deletes the record and returns a success message; otherwise, responds with a not found or error message.
-
-
-// 9. Define the `filter` Method:
-//    - Handles HTTP GET requests to filter doctors based on name, time, and specialty.
-//    - Accepts `name`, `time`, and `speciality` as path variables.
-//    - Calls the shared `Service` to perform filtering logic and returns matching doctors in the response.
-
-
+    private final DoctorService doctorService;
+    private final PatientRecordService patientRecordService;
+    private final ResourceVersions versions;
+    private final Service service;
+
+    // 2) Constructor injection
+    public DoctorController(DoctorService doctorService, PatientRecordService patientRecordService,
+                            ResourceVersions versions, Service service) {
+        this.doctorService = doctorService;
+        this.patientRecordService = patientRecordService;
+        this.versions = versions;
+        this.service = service;
+    }
+
+
+    // 3) getDoctorAvailability: the doctor's free windows on ?date= (yyyy-MM-dd) under "availability",
+    // e.g. ["09:00-10:00", "11:00-12:30"], answered from the slot bitmaps. Public like the doctor list
+    @GetMapping("/{doctorId}/availability")
+    public ResponseEntity<Map<String, Object>> getDoctorAvailability(@PathVariable("doctorId") Long doctorId,
+                                                                     @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(Map.of("availability", doctorService.getDoctorAvailability(doctorId, date)));
+    }
+
+
+    // 4) getDoctor: all doctors as summary rows under "doctors"; optional ?name= (contains) and ?specialty= filters.
+    // Tagged with the doctor-list version: a matching If-None-Match gets 304 before any query runs
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getDoctor(@RequestParam(value = "name", required = false) String name,
+                                                         @RequestParam(value = "specialty", required = false) String specialty,
+                                                         WebRequest request) {
+        String etag = versions.doctorsTag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(Map.of("doctors", doctorService.getDoctors(name, specialty)));
+    }
+
+
+    // 4b) getSpecialties: distinct specialties under "specialties", for the filter drop-downs
+    @GetMapping("/specialties")
+    public ResponseEntity<Map<String, Object>> getSpecialties(WebRequest request) {
+        String etag = versions.doctorsTag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(Map.of("specialties", doctorService.getSpecialties()));
+    }
+
+
+    // 6) doctorLogin: delegates to DoctorService.validateDoctor (rate limited, bcrypt on the hashing pool)
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<?>> doctorLogin(@RequestBody Login login, HttpServletRequest request) {
+        return doctorService.validateDoctor(login, request.getRemoteAddr());
+    }
+
+    // 6b) getPatientRecord: the calling doctor's appointments with a patient (MySQL) and the prescriptions
+    // written for them (MongoDB), fetched in parallel. 200 with "partial": true when one store did not answer
+    // in time, 404 when the doctor has nothing on this patient, 503 when neither store answered
+    @GetMapping("/patients/{patientId}/record")
+    public CompletableFuture<ResponseEntity<?>> getPatientRecord(@PathVariable("patientId") Long patientId,
+                                                                 @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("doctor")) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized")));
+        }
+        return patientRecordService.getRecord(principal.getId(), patientId).thenApply(DoctorController::recordResponse);
+    }
+
+    private static ResponseEntity<?> recordResponse(PatientRecord record) {
+        if (record.appointments() == null && record.prescriptions() == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", "Patient record is temporarily unavailable, please retry"));
+        }
+        boolean noAppointments = record.appointments() == null || record.appointments().isEmpty();
+        boolean noPrescriptions = record.prescriptions() == null || record.prescriptions().isEmpty();
+        if (!record.partial() && noAppointments && noPrescriptions) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No records for this patient"));
+        }
+        return ResponseEntity.ok(record);
+    }
+
+
+    // 7) updateDoctor: admin edits a doctor's profile (name, specialty, email, phone, availableTimes).
+    // Send the "version" last read to reject the edit with 409 {message, version} if someone saved in between;
+    // see DoctorService.updateDoctor
+    @PutMapping("/profiles/{doctorId}")
+    public ResponseEntity<Map<String, String>> updateDoctor(@PathVariable("doctorId") long doctorId,
+                                                            @RequestBody Doctor doctor,
+                                                            @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("admin")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
+        }
+        return doctorService.updateDoctor(doctorId, doctor);
+    }
+
+
+    // 9) filter: doctors matching ?name= (contains), ?time= (AM, PM or HH:mm-HH:mm) and ?specialty=, answered
+    // from the in-memory index via Service.filterDoctor. Tagged with the doctor-list version like getDoctor
+    @GetMapping("/filter")
+    public ResponseEntity<Map<String, Object>> filter(@RequestParam(value = "name", required = false) String name,
+                                                      @RequestParam(value = "time", required = false) String time,
+                                                      @RequestParam(value = "specialty", required = false) String specialty,
+                                                      WebRequest request) {
+        String etag = versions.doctorsTag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity<Map<String, Object>> result = service.filterDoctor(name, time, specialty);
+        if (!result.getStatusCode().is2xxSuccessful()) {
+            return result;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(result.getBody());
+    }
 }
@@ -1,22 +1,88 @@
 package com.project.back_end.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.project.back_end.DTO.Login;
+import com.project.back_end.config.BearerTokenFilter;
+import com.project.back_end.services.PatientHistoryExport;
+import com.project.back_end.services.PatientService;
+import com.project.back_end.services.VerifiedPrincipal;
+import com.project.back_end.services.Service;
+
+@RestController
+@RequestMapping("/patient")
 public class PatientController {
 
-// 1. Set Up the Controller Class:
-//    - Annotate the class with `@RestController` to define it as a REST API controller for patient-related operations.
-//    - Use `@RequestMapping("/patient")` to prefix all endpoints with `/patient`, grouping all patient functionalities under a common route.
-
-
-// 2. Autowire Dependencies:
-//    - Inject `PatientService` to handle patient-specific logic such as creation, retrieval, and appointments.
-//    - Inject the shared `Service` class for tasks like token validation and login authentication.
-
-
-// 3. Define the `getPatient` Method:
-//    - Handles HTTP GET requests to retrieve patient details using a token.
-//    - Validates the token for the `"patient"` role using the shared service.
-//    - If the token is valid, returns patient information; otherwise, returns an appropriate error message.
-
+    private final Service service;
+    private final PatientService patientService;
+    private final PatientHistoryExport patientHistoryExport;
+
+    public PatientController(Service service, PatientService patientService, PatientHistoryExport patientHistoryExport) {
+        this.service = service;
+        this.patientService = patientService;
+        this.patientHistoryExport = patientHistoryExport;
+    }
+
+    // 5) login: delegates to validatePatientLogin; the bcrypt check completes on the hashing pool
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody Login login, HttpServletRequest request) {
+        return service.validatePatientLogin(login.getEmail(), login.getPassword(), request.getRemoteAddr());
+    }
+
+    // 3) getPatient: the calling patient's profile (Bearer token, see BearerTokenFilter) as a PatientSummary projection
+    @GetMapping("/me")
+    public ResponseEntity<Map<String, Object>> getPatient(@RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
+        }
+        return service.getPatientDetails(principal.getId())
+                .<ResponseEntity<Map<String, Object>>>map(patient -> ResponseEntity.ok(Map.of("patient", patient)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Patient not found")));
+    }
+
+
+    // 8) exportHistory: the whole appointment and prescription history as NDJSON, streamed from a MySQL
+    // result stream and a MongoDB cursor (PatientHistoryExport). Patients export their own; admins pass ?patientId=.
+    // 503 with Retry-After while patient.history.max-concurrent-exports exports are already running
+    @GetMapping("/history")
+    public ResponseEntity<?> exportHistory(@RequestParam(value = "patientId", required = false) Long patientId,
+                                           @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        Long exported;
+        if (principal.hasRole("patient")) {
+            exported = principal.getId();
+        } else if (principal.hasRole("admin") && patientId != null) {
+            exported = patientId;
+        } else {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
+        }
+        Optional<StreamingResponseBody> body = patientHistoryExport.open(exported);
+        if (body.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("message", "Too many history exports in progress, please retry later"));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"patient-" + exported + "-history.ndjson\"")
+                .body(body.get());
+    }
 
 // 4. Define the `createPatient` Method:
 //    - Handles HTTP POST requests for patient registration.
@@ -25,25 +91,27 @@ public class PatientController {
 //    - If validation passes, attempts to create the patient and returns success or error messages based on the outcome.
 
 
-// 5. Define the `login` Method:
-//    - Handles HTTP POST requests for patient login.
-//    - Accepts a `Login` DTO containing email/username and password.
-//    - Delegates authentication to the `validatePatientLogin` method in the shared service.
-//    - Returns a response with a token or an error message depending on login success.
-
-
-// 6. Define the `getPatientAppointment` Method:
-//    - Handles HTTP GET requests to fetch appointment details for a specific patient.
-//    - Requires the patient ID, token, and user role as path variables.
-//    - Validates the token using the shared service.
-//    - If valid, retrieves the patient's appointment data from `PatientService`; otherwise, returns a validation error.
-
+    // 6) getPatientAppointment: the calling patient's own appointments under "appointments", newest first
+    @GetMapping("/appointments")
+    public ResponseEntity<Map<String, Object>> getPatientAppointment(@RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
+        }
+        return ResponseEntity.ok(Map.of("appointments", patientService.getPatientAppointments(principal.getId())));
+    }
+
+    // 7) filterPatientAppointment: the calling patient's appointments filtered by ?condition=past|future and
+    // ?name= (part of the doctor's name); both optional
+    @GetMapping("/appointments/filter")
+    public ResponseEntity<Map<String, Object>> filterPatientAppointment(@RequestParam(value = "condition", required = false) String condition,
+                                                                        @RequestParam(value = "name", required = false) String name,
+                                                                        @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
+        }
+        return service.filterPatient(principal.getId(), condition, name);
+    }
 
-// 7. Define the `filterPatientAppointment` Method:
-//    - Handles HTTP GET requests to filter a patient's appointments based on specific conditions.
-//    - Accepts filtering parameters: `condition`, `name`, and a token.
-//    - Token must be valid for a `"patient"` role.
-//    - If valid, delegates filtering logic to the shared service and returns the filtered result.
 
 
 
@@ -1,33 +1,125 @@
 package com.project.back_end.controllers;
 
-public class PrescriptionController {
-    
-// 1. Set Up the Controller Class:
-//    - Annotate the class with `@RestController` to define it as a REST API controller.
-//    - Use `@RequestMapping("${api.path}prescription")` to set the base path for all prescription-related endpoints.
-//    - This controller manages creating and retrieving prescriptions tied to appointments.
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-// 2. Autowire Dependencies:
-//    - Inject `PrescriptionService` to handle logic related to saving and fetching prescriptions.
-//    - Inject the shared `Service` class for token validation and role-based access control.
-//    - Inject `AppointmentService` to update appointment status after a prescription is issued.
+import com.project.back_end.config.BearerTokenFilter;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.PrescriptionImporter;
+import com.project.back_end.services.PrescriptionService;
+import com.project.back_end.services.VerifiedPrincipal;
+
+/**
+ * Creating and reading prescriptions tied to appointments.
+ * Authentication happens in {@link BearerTokenFilter}; handlers require the "doctor" role,
+ * except the bulk import, which is admin only.
+ */
+@RestController
+@RequestMapping("${api.path}prescription")
+public class PrescriptionController {
 
+    private final PrescriptionService prescriptionService;
+    private final AppointmentService appointmentService;
+    private final PrescriptionImporter prescriptionImporter;
+    private final int maxMultiGetIds;
 
-// 3. Define the `savePrescription` Method:
-//    - Handles HTTP POST requests to save a new prescription for a given appointment.
-//    - Accepts a validated `Prescription` object in the request body and a doctor’s token as a path variable.
-//    - Validates the token for the `"doctor"` role.
-//    - If the token is valid, updates the status of the corresponding appointment to reflect that a prescription has been added.
-//    - Delegates the saving logic to `PrescriptionService` and returns a response indicating success or failure.
+    public PrescriptionController(PrescriptionService prescriptionService, AppointmentService appointmentService,
+                                  PrescriptionImporter prescriptionImporter,
+                                  @Value("${prescriptions.multi-get.max-ids:200}") int maxMultiGetIds) {
+        this.prescriptionService = prescriptionService;
+        this.appointmentService = appointmentService;
+        this.prescriptionImporter = prescriptionImporter;
+        this.maxMultiGetIds = maxMultiGetIds;
+    }
 
+    // 3) savePrescription: marks the appointment as completed, then stores the prescription. Nothing is stored
+    // when the appointment does not exist (400) or kept changing under the status update (409)
+    @PostMapping
+    public ResponseEntity<Map<String, String>> savePrescription(@Valid @RequestBody Prescription prescription,
+                                                                @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("doctor")) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Unauthorized");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        ResponseEntity<Map<String, String>> completed = appointmentService.changeStatus(prescription.getAppointmentId(), 1);
+        if (!completed.getStatusCode().is2xxSuccessful()) {
+            return completed;
+        }
+        return prescriptionService.savePrescription(prescription);
+    }
 
-// 4. Define the `getPrescription` Method:
-//    - Handles HTTP GET requests to retrieve a prescription by its associated appointment ID.
-//    - Accepts the appointment ID and a doctor’s token as path variables.
-//    - Validates the token for the `"doctor"` role using the shared service.
-//    - If the token is valid, fetches the prescription using the `PrescriptionService`.
-//    - Returns the prescription details or an appropriate error message if validation fails.
+    // 4) getPrescription: prescription for an appointment
+    @GetMapping("/{appointmentId}")
+    public ResponseEntity<Map<String, Object>> getPrescription(@PathVariable("appointmentId") Long appointmentId,
+                                                               @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("doctor")) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Unauthorized");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        return prescriptionService.getPrescription(appointmentId);
+    }
 
+    // 4b) getPrescriptions: ?ids=1,2,3 -> {"prescriptions": {appointmentId: prescription}} in one Mongo query,
+    // for day views and patient histories. 400 if no ids or more than prescriptions.multi-get.max-ids
+    @GetMapping("/by-appointments")
+    public ResponseEntity<Map<String, Object>> getPrescriptions(@RequestParam("ids") List<Long> ids,
+                                                                @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        Map<String, Object> response = new HashMap<>();
+        if (!principal.hasRole("doctor")) {
+            response.put("message", "Unauthorized");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.isEmpty() || distinct.size() > maxMultiGetIds) {
+            response.put("message", "Between 1 and " + maxMultiGetIds + " appointment ids are required");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+        return prescriptionService.getPrescriptions(distinct);
+    }
 
+    // 5) importPrescriptions: admin bulk load of historical prescriptions, one JSON document per line
+    // (application/x-ndjson), streamed from the request body. 200 with the ImportReport; rejected lines
+    // are counted and sampled in the report rather than failing the import
+    @PostMapping(value = "/import", consumes = "application/x-ndjson", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importPrescriptions(HttpServletRequest request,
+                                                 @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal)
+            throws IOException {
+        if (!principal.hasRole("admin")) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Unauthorized");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        try {
+            return ResponseEntity.ok(prescriptionImporter.importNdjson(request.getInputStream()));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Import interrupted");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package com.project.back_end.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Optional;
+
+import com.project.back_end.DTO.DoctorPatientCount;
+import com.project.back_end.config.BearerTokenFilter;
+import com.project.back_end.services.ReportService;
+import com.project.back_end.services.VerifiedPrincipal;
+
+// Admin reports (the data.sql procedures as endpoints); Bearer-authenticated by BearerTokenFilter
+@RestController
+@RequestMapping("${api.path}reports")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    public ReportController(ReportService reportService) {
+        this.reportService = reportService;
+    }
+
+    // 1) Appointments per doctor on one day, e.g. GET /reports/daily/2025-12-15
+    @GetMapping("/daily/{date}")
+    public ResponseEntity<Map<String, Object>> dailyReport(@PathVariable("date") LocalDate date,
+                                                           @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("admin")) {
+            return unauthorized();
+        }
+        return ResponseEntity.ok(Map.of("date", date, "doctors", reportService.dailyAppointmentsByDoctor(date)));
+    }
+
+    // 2) Doctor with the most distinct patients in a month, e.g. GET /reports/top-doctor/2025/12
+    @GetMapping("/top-doctor/{year}/{month}")
+    public ResponseEntity<Map<String, Object>> topDoctorByMonth(@PathVariable("year") int year,
+                                                                @PathVariable("month") int month,
+                                                                @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("admin")) {
+            return unauthorized();
+        }
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.of(year, month);
+        } catch (DateTimeException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid month"));
+        }
+        return topDoctor(reportService.topDoctorByMonth(yearMonth));
+    }
+
+    // 3) Doctor with the most distinct patients in a year, e.g. GET /reports/top-doctor/2025
+    @GetMapping("/top-doctor/{year}")
+    public ResponseEntity<Map<String, Object>> topDoctorByYear(@PathVariable("year") int year,
+                                                               @RequestAttribute(BearerTokenFilter.PRINCIPAL_ATTRIBUTE) VerifiedPrincipal principal) {
+        if (!principal.hasRole("admin")) {
+            return unauthorized();
+        }
+        return topDoctor(reportService.topDoctorByYear(Year.of(year)));
+    }
+
+    private static ResponseEntity<Map<String, Object>> topDoctor(Optional<DoctorPatientCount> top) {
+        return top.<ResponseEntity<Map<String, Object>>>map(row -> ResponseEntity.ok(Map.of("doctor", row)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "No appointments in this period")));
+    }
+
+    private static ResponseEntity<Map<String, Object>> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Unauthorized"));
+    }
+}
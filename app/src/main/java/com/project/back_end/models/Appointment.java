@@ -1,12 +1,16 @@
 package com.project.back_end.models;
 
-import javax.persistence.*;
-import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Future;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.groups.Default;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.project.back_end.services.AppointmentChangeListener;
+
 /**
  * Appointment entity
  *
@@ -14,29 +18,60 @@ import java.time.LocalTime;
  * Mapped to the "appointments" table via JPA/Hibernate.
  */
 @Entity
-@Table(name = "appointments")
+// The unique (doctor, time) key is the cross-node backstop for BookingLocks
+@Table(name = "appointments",
+       uniqueConstraints = @UniqueConstraint(name = Appointment.DOCTOR_TIME_KEY, columnNames = {"doctor_id", "appointment_time"}))
+@EntityListeners(AppointmentChangeListener.class)
 public class Appointment {
 
-   
+    public static final String DOCTOR_TIME_KEY = "uk_appt_doctor_time";
+    public static final String ID_SEQUENCE = "appointment_seq";
+    public static final int ID_ALLOCATION = 50;
+
+    // Validation group of request bodies that book or move an appointment. The checks that only make sense
+    // for a new time (@Future) sit here, not in Default, which is what Hibernate validates on every flush:
+    // a status change on a past appointment must still save
+    public interface Scheduling extends Default {}
+
+    // Pooled sequence ids (one round trip per 50 ids) instead of IDENTITY, so Hibernate can
+    // batch inserts (hibernate.jdbc.batch_size). MySQL has no sequences: Hibernate keeps the
+    // counter in the appointment_seq table, which AppointmentSequence raises above MAX(id) at startup.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION)
     private Long id;
 
-    @ManyToOne
+    // LAZY: listings read AppointmentDTO projections (one join, flat columns), and the booking and
+    // listener paths only need the ids, which a proxy answers without a select
+    @ManyToOne(fetch = FetchType.LAZY)
     @NotNull
     private Doctor doctor;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @NotNull
     private Patient patient;
 
-    @Future
+    @Future(groups = Scheduling.class)
     @NotNull
     private LocalDateTime appointmentTime;
 
     @NotNull
     private int status; // 0 = scheduled, 1 = completed
 
+    // Optimistic lock: every update runs "... where id = ? and version = ?" and bumps it, so a write based on a
+    // stale read fails instead of overwriting. Null only before the first insert; in a request body it is the
+    // version the client read (null = no expectation)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // State as last read from / written to the database, so change listeners can see what an update replaced
+    @Transient
+    private LocalDateTime loadedAppointmentTime;
+
+    @Transient
+    private Integer loadedStatus;
+
     // Default constructor
     public Appointment() {}
 
@@ -59,6 +94,7 @@ public class Appointment {
     public void setPatient(Patient patient) { this.patient = patient; }
 
     public LocalDateTime getAppointmentTime() { return appointmentTime; }
+    public void setAppointmentTime(LocalDateTime appointmentTime) { this.appointmentTime = appointmentTime; }
 
     public int getStatus() {
         return status;
@@ -68,6 +104,9 @@ public class Appointment {
         this.status = status;
     } 
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     // Utility methods
     public LocalDateTime getEndTime() {
         return appointmentTime.plusHours(1);
@@ -81,4 +120,19 @@ public class Appointment {
         return appointmentTime.toLocalTime();
     }
 
+    @JsonIgnore
+    public LocalDateTime getLoadedAppointmentTime() { return loadedAppointmentTime; }
+
+    @JsonIgnore
+    public Integer getLoadedStatus() { return loadedStatus; }
+
+    // Entity callbacks run after the entity listeners, so listeners still see the previous values here
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberLoadedState() {
+        this.loadedAppointmentTime = appointmentTime;
+        this.loadedStatus = status;
+    }
+
 }
@@ -0,0 +1,151 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * AvailabilitySlot embeddable
+ *
+ * Typed form of one {@code Doctor.availableTimes} entry, e.g. "09:00-10:00"
+ * (every day) or "MON 09:00-10:00" (Mondays only).
+ *
+ * Stored as three small columns (weekday TINYINT, start/end minute-of-day SMALLINT)
+ * in the doctor's slot collection table, and packable into a single int
+ * (weekday << 22 | start << 11 | end) for in-memory use, so filters and
+ * validation compare integers instead of parsing strings.
+ */
+@Embeddable
+public class AvailabilitySlot {
+
+    /** Weekday value used when a slot applies to every day. */
+    public static final int EVERY_DAY = 0;
+
+    private static final int MINUTE_BITS = 11;
+    private static final int MINUTE_MASK = (1 << MINUTE_BITS) - 1;
+
+    // 1) Weekday: 0 = every day, 1..7 = ISO Monday..Sunday
+    @Column(name = "weekday", nullable = false)
+    private byte weekday;
+
+    // 2) Start of the slot, minutes since midnight (inclusive)
+    @Column(name = "start_minute", nullable = false)
+    private short startMinute;
+
+    // 3) End of the slot, minutes since midnight (exclusive)
+    @Column(name = "end_minute", nullable = false)
+    private short endMinute;
+
+    /** No-argument constructor required by JPA. */
+    public AvailabilitySlot() {}
+
+    public AvailabilitySlot(int weekday, int startMinute, int endMinute) {
+        this.weekday = (byte) weekday;
+        this.startMinute = (short) startMinute;
+        this.endMinute = (short) endMinute;
+    }
+
+    /**
+     * Parses "HH:mm-HH:mm" with an optional leading weekday ("MON", "Monday"); spaces around
+     * the dash are allowed ("09:00 - 10:00").
+     * @return the slot, or {@code null} if the text is not a valid range
+     */
+    public static AvailabilitySlot parse(String text) {
+        if (text == null) return null;
+        String range = text.trim();
+        int weekday = EVERY_DAY;
+
+        // Only a weekday name is split off; any other first word belongs to the range itself
+        int space = range.indexOf(' ');
+        if (space > 0) {
+            int day = parseWeekday(range.substring(0, space));
+            if (day > 0) {
+                weekday = day;
+                range = range.substring(space + 1).trim();
+            }
+        }
+
+        int dash = range.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            int start = LocalTime.parse(range.substring(0, dash).trim()).toSecondOfDay() / 60;
+            int end = LocalTime.parse(range.substring(dash + 1).trim()).toSecondOfDay() / 60;
+            if (end <= start) return null;
+            return new AvailabilitySlot(weekday, start, end);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /** Rebuilds a slot from {@link #pack()}. */
+    public static AvailabilitySlot unpack(int packed) {
+        return new AvailabilitySlot(weekdayOf(packed), startOf(packed), endOf(packed));
+    }
+
+    /** Packs weekday, start and end minute into one int. */
+    public int pack() {
+        return (weekday << (2 * MINUTE_BITS)) | (startMinute << MINUTE_BITS) | endMinute;
+    }
+
+    public static int weekdayOf(int packed) { return packed >>> (2 * MINUTE_BITS); }
+    public static int startOf(int packed) { return (packed >>> MINUTE_BITS) & MINUTE_MASK; }
+    public static int endOf(int packed) { return packed & MINUTE_MASK; }
+
+    /** @return true if the packed slot applies on the given day */
+    public static boolean appliesTo(int packed, DayOfWeek day) {
+        int w = weekdayOf(packed);
+        return w == EVERY_DAY || w == day.getValue();
+    }
+
+    // 4) Getters
+
+    /** @return the weekday this slot applies to, or {@code null} for every day */
+    public DayOfWeek getWeekday() {
+        return weekday == EVERY_DAY ? null : DayOfWeek.of(weekday);
+    }
+
+    public int getStartMinute() { return startMinute; }
+    public int getEndMinute() { return endMinute; }
+
+    public LocalTime getStartTime() { return LocalTime.ofSecondOfDay(startMinute * 60L); }
+
+    // 24:00 has no LocalTime; an end of midnight is reported as 23:59
+    public LocalTime getEndTime() { return LocalTime.ofSecondOfDay(Math.min(endMinute * 60L, 86_340L)); }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AvailabilitySlot)) return false;
+        AvailabilitySlot that = (AvailabilitySlot) o;
+        return weekday == that.weekday && startMinute == that.startMinute && endMinute == that.endMinute;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(weekday, startMinute, endMinute);
+    }
+
+    /** Canonical text form, accepted back by {@link #parse(String)}. */
+    @Override
+    public String toString() {
+        String range = String.format("%02d:%02d-%02d:%02d",
+                startMinute / 60, startMinute % 60, endMinute / 60, endMinute % 60);
+        return weekday == EVERY_DAY
+                ? range
+                : DayOfWeek.of(weekday).getDisplayName(TextStyle.SHORT, Locale.ENGLISH).toUpperCase(Locale.ROOT) + " " + range;
+    }
+
+    private static int parseWeekday(String token) {
+        String t = token.toUpperCase(Locale.ROOT);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().equals(t) || (t.length() >= 3 && day.name().startsWith(t))) {
+                return day.getValue();
+            }
+        }
+        return -1;
+    }
+}
@@ -1,10 +1,17 @@
 package com.project.back_end.models;
 
-import javax.persistence.*;
-import javax.validation.constraints.NotBlank;
-import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Size;
-import javax.validation.constraints.AssertTrue;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.project.back_end.services.DoctorChangeListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.ArrayList;
@@ -12,8 +19,17 @@ import java.util.List;
 
 @Entity
 @Table(name = "doctors")
+@EntityListeners(DoctorChangeListener.class)
+// Second-level cached (region "doctors", see application.conf); READ_WRITE keeps the cache
+// consistent with this node's own writes, DoctorCacheInvalidator handles other nodes' writes
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Doctor.CACHE_REGION)
 public class Doctor {
 
+    public static final String CACHE_REGION = "doctors";
+    public static final String AVAILABLE_TIMES_REGION = "doctors.availableTimes";
+    public static final String AVAILABILITY_SLOTS_REGION = "doctors.availabilitySlots";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -39,8 +55,25 @@ public class Doctor {
     @Pattern(regexp = "^[0-9]{10}$")
     private String phone;
 
+    // Optimistic lock, see Appointment#version. Bumped by any change to the doctor row or its collections
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @ElementCollection
-    private List<String> availableTimes; // e.g., ["09:00-10:00", "10:00-11:00"]
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AVAILABLE_TIMES_REGION)
+    private List<String> availableTimes; // e.g., ["09:00-10:00", "MON 10:00-11:00"]
+
+    // Typed, compact copy of availableTimes (weekday + start/end minute), kept in sync on save
+    @ElementCollection
+    @CollectionTable(name = "doctor_availability_slots", joinColumns = @JoinColumn(name = "doctor_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = AVAILABILITY_SLOTS_REGION)
+    @JsonIgnore
+    private List<AvailabilitySlot> availabilitySlots = new ArrayList<>();
+
+    // availabilitySlots packed one int per slot (see AvailabilitySlot#pack); built once per loaded instance
+    @Transient
+    private int[] packedSlots;
 
     // Default constructor
     public Doctor() {}
@@ -52,7 +85,7 @@ public class Doctor {
         this.email = email;
         this.password = password;
         this.phone = phone;
-        this.availableTimes = availableTimes;
+        setAvailableTimes(availableTimes);
     }
 
     // Getters and Setters
@@ -69,11 +102,75 @@ public class Doctor {
     public void setEmail(String email) { this.email = email; }
 
     public String getPassword() { return password; }
-   public void getPassword(String password) { this.password = password; }
+    public void setPassword(String password) { this.password = password; }
 
     public String getPhone() { return phone; }
     public void setPhone(String phone) { this.phone = phone; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public List<String> getAvailableTimes() { return availableTimes; }
-    public void setAvailableTimes(List<String> availableTimes) { this.availableTimes = availableTimes; }
+
+    public void setAvailableTimes(List<String> availableTimes) {
+        this.availableTimes = availableTimes;
+        syncAvailabilitySlots();
+    }
+
+    @JsonIgnore
+    public List<AvailabilitySlot> getAvailabilitySlots() { return availabilitySlots; }
+
+    /**
+     * Availability as packed ints (weekday | start minute | end minute), parsed once and
+     * cached on this instance. Rows saved before availabilitySlots existed fall back to
+     * parsing availableTimes, still only once.
+     */
+    @JsonIgnore
+    public int[] getPackedSlots() {
+        int[] packed = packedSlots;
+        if (packed == null) {
+            List<AvailabilitySlot> slots = availabilitySlots;
+            if ((slots == null || slots.isEmpty()) && availableTimes != null && !availableTimes.isEmpty()) {
+                slots = parse(availableTimes);
+            }
+            packed = pack(slots);
+            packedSlots = packed;
+        }
+        return packed;
+    }
+
+    // Re-derives the typed slots from the string form; runs on set and again right before insert.
+    // Not @PreUpdate: Hibernate does not support changing a collection during flush, and every update
+    // path goes through setAvailableTimes already
+    @PrePersist
+    void syncAvailabilitySlots() {
+        List<AvailabilitySlot> parsed = parse(availableTimes);
+        if (availabilitySlots == null) {
+            availabilitySlots = new ArrayList<>();
+        }
+        if (!availabilitySlots.equals(parsed)) {
+            availabilitySlots.clear();
+            availabilitySlots.addAll(parsed);
+        }
+        packedSlots = pack(parsed);
+    }
+
+    private static List<AvailabilitySlot> parse(List<String> times) {
+        List<AvailabilitySlot> slots = new ArrayList<>();
+        if (times == null) return slots;
+        for (String time : times) {
+            AvailabilitySlot slot = AvailabilitySlot.parse(time);
+            if (slot != null) slots.add(slot);
+        }
+        return slots;
+    }
+
+    private static int[] pack(List<AvailabilitySlot> slots) {
+        if (slots == null) return new int[0];
+        int[] packed = new int[slots.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = slots.get(i).pack();
+        }
+        return packed;
+    }
 }
\ No newline at end of file
@@ -3,8 +3,8 @@ package com.project.back_end.models;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Size;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 /**
  * Prescription document
@@ -72,6 +72,15 @@ public class Prescription {
     @Size(max = 200)
     private String doctorNotes;
 
+    // 6b) Doctor and patient ids
+    /**
+     * Copied from the SQL appointment when the prescription is saved, so a patient's
+     * prescriptions can be queried without first reading appointment ids from MySQL.
+     * Set by the server; values sent by clients are overwritten.
+     */
+    private Long doctorId;
+    private Long patientId;
+
     // 7) Constructors
 
     /** No-argument constructor required by frameworks. */
@@ -119,6 +128,12 @@ public class Prescription {
     public String getDoctorNotes() { return doctorNotes; }
     public void setDoctorNotes(String doctorNotes) { this.doctorNotes = doctorNotes; }
 
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
     @Override
     public String toString() {
         return "Prescription{" +
@@ -128,6 +143,8 @@ public class Prescription {
                 ", medication='" + medication + '\'' +
                 ", dosage='" + dosage + '\'' +
                 ", doctorNotes='" + doctorNotes + '\'' +
+                ", doctorId=" + doctorId +
+                ", patientId=" + patientId +
                 "}";
     }
 }
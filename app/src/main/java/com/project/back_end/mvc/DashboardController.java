@@ -6,6 +6,9 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.PathVariable;
 
 import com.project.back_end.services.Service;
+import com.project.back_end.services.VerifiedPrincipal;
+
+import java.util.Optional;
 
 import org.springframework.web.bind.annotation.GetMapping;
 
@@ -29,39 +32,39 @@ public class DashboardController {
     /**
      * Admin Dashboard:
      * GET /adminDashboard/{token}
-     * - Validates token for "admin" role.
+     * - Verifies the token once and checks it carries the "admin" role.
      * - If valid => returns "admin/adminDashboard" Thymeleaf view.
      * - If invalid => redirects to root (login/home).
      */
     @GetMapping("/adminDashboard/{token}")
     public String adminDashboard(@PathVariable("token") String token, Model model) {
-        boolean valid = sharedService.validateTokenForRole(token, "admin");
-        if (!valid) {
+        Optional<VerifiedPrincipal> principal = sharedService.authenticate(token, "admin");
+        if (principal.isEmpty()) {
             return "redirect:/";
         }
         // Optional: add attributes for Thymeleaf template
         model.addAttribute("role", "admin");
-        model.addAttribute("username", sharedService.extractUsername(token));
+        model.addAttribute("username", principal.get().getSubject());
         return "admin/adminDashboard";
     }
 
     /**
      * Doctor Dashboard:
      * GET /doctorDashboard/{token}
-     * - Validates token for "doctor" role.
+     * - Verifies the token once and checks it carries the "doctor" role.
      * - If valid => returns "doctor/doctorDashboard" Thymeleaf view.
      * - If invalid => redirects to root (login/home).
      */
     @GetMapping("/doctorDashboard/{token}")
     public String doctorDashboard(@PathVariable("token") String token, Model model) {
-        boolean valid = sharedService.validateTokenForRole(token, "doctor");
-        if (!valid) {
+        Optional<VerifiedPrincipal> principal = sharedService.authenticate(token, "doctor");
+        if (principal.isEmpty()) {
             return "redirect:/";
         }
-               // Optional: add attributes for Thymeleaf template
+        // Optional: add attributes for Thymeleaf template
         model.addAttribute("role", "doctor");
-        model.addAttribute("username", sharedService.extractUsername(token));
-        model.addAttribute("doctorId", sharedService.extractPrincipalId(token)); // if applicable
+        model.addAttribute("username", principal.get().getSubject());
+        model.addAttribute("doctorId", principal.get().getId()); // if applicable
         return "doctor/doctorDashboard";
     }
 }
\ No newline at end of file
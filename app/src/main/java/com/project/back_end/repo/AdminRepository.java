@@ -1,8 +1,13 @@
 package com.project.back_end.repo;
 
-// AdminRepository.java
 import java.util.Optional;
 
-public interface AdminRepository {
-    Optional<com.project.back_end.models.Admin> findByUsername(String username);
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.project.back_end.models.Admin;
+
+public interface AdminRepository extends JpaRepository<Admin, Long> {
+
+    // Login lookup (unique username)
+    Optional<Admin> findByUsername(String username);
 }
@@ -1,9 +1,173 @@
 package com.project.back_end.repo;
 
-
-// AppointmentRepository.java
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-public interface AppointmentRepository {
-    List<com.project.back_end.models.Appointment> findByDoctorIdAndDate(Long doctorId, LocalDate date);
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentFact;
+import com.project.back_end.DTO.AppointmentParticipants;
+import com.project.back_end.DTO.DoctorAppointmentCount;
+import com.project.back_end.DTO.DoctorPatientCount;
+import com.project.back_end.models.Appointment;
+
+public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+
+    // Owning doctor of an appointment, read before locking a reschedule's slots
+    @Query("select a.doctor.id from Appointment a where a.id = :id")
+    Optional<Long> findDoctorIdById(@Param("id") Long id);
+
+    // Current optimistic-lock version, returned with a 409 after a lost update race
+    @Query("select a.version from Appointment a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Start times only of a doctor's appointments in [start, end); all the slot bitmaps need
+    @Query("select a.appointmentTime from Appointment a "
+            + "where a.doctor.id = :doctorId and a.appointmentTime >= :start and a.appointmentTime < :end")
+    List<LocalDateTime> findAppointmentTimes(@Param("doctorId") Long doctorId,
+                                             @Param("start") LocalDateTime start,
+                                             @Param("end") LocalDateTime end);
+
+    // Doctor dashboard rows in [start, end), optionally filtered by patient name (null = no filter).
+    // Constructor projection: selects the rendered columns only, never the doctor/patient password hashes.
+    @Query("select new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, a.version) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where d.id = :doctorId and a.appointmentTime >= :start and a.appointmentTime < :end "
+            + "and (:patientName is null or lower(p.name) like lower(concat('%', :patientName, '%'))) "
+            + "order by a.appointmentTime")
+    List<AppointmentDTO> findDashboardRows(@Param("doctorId") Long doctorId,
+                                           @Param("patientName") String patientName,
+                                           @Param("start") LocalDateTime start,
+                                           @Param("end") LocalDateTime end);
+
+    // Keyset pages in (appointment_time, id) order over [afterTime, end): rows after the (afterTime, afterId)
+    // cursor, first page with afterTime = range start and afterId = 0. Each page is a range scan of
+    // idx_appt_doctor_time starting at the cursor (InnoDB secondary indexes end with the id), so its
+    // cost does not grow with the page depth. Pass Limit.of(size + 1) to learn whether a next page exists.
+    @Query("select new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, a.version) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where d.id = :doctorId and a.appointmentTime >= :afterTime and a.appointmentTime < :end "
+            + "and (a.appointmentTime > :afterTime or a.id > :afterId) "
+            + "and (:patientName is null or lower(p.name) like lower(concat('%', :patientName, '%'))) "
+            + "order by a.appointmentTime, a.id")
+    List<AppointmentDTO> findPage(@Param("doctorId") Long doctorId,
+                                  @Param("patientName") String patientName,
+                                  @Param("afterTime") LocalDateTime afterTime,
+                                  @Param("afterId") Long afterId,
+                                  @Param("end") LocalDateTime end,
+                                  Limit limit);
+
+    // Same across all doctors (admins), on idx_appt_time
+    @Query("select new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, a.version) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where a.appointmentTime >= :afterTime and a.appointmentTime < :end "
+            + "and (a.appointmentTime > :afterTime or a.id > :afterId) "
+            + "and (:patientName is null or lower(p.name) like lower(concat('%', :patientName, '%'))) "
+            + "order by a.appointmentTime, a.id")
+    List<AppointmentDTO> findPageAllDoctors(@Param("patientName") String patientName,
+                                            @Param("afterTime") LocalDateTime afterTime,
+                                            @Param("afterId") Long afterId,
+                                            @Param("end") LocalDateTime end,
+                                            Limit limit);
+
+    // One dashboard row by id (pushed to open doctor dashboards by AppointmentFeed)
+    @Query("select new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, a.version) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where a.id = :id")
+    Optional<AppointmentDTO> findRowById(@Param("id") Long id);
+
+    // One patient's appointments with one doctor, newest first (doctor's patient-record view)
+    @Query("select new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, a.version) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where d.id = :doctorId and p.id = :patientId "
+            + "order by a.appointmentTime desc")
+    List<AppointmentDTO> findPatientHistory(@Param("doctorId") Long doctorId,
+                                            @Param("patientId") Long patientId);
+
+    // One patient's own appointments, newest first, optionally only with doctors whose name contains doctorName
+    // and within [from, to) (null = no filter / open end)
+    @Query("select new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, a.version) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where p.id = :patientId "
+            + "and (:doctorName is null or lower(d.name) like lower(concat('%', :doctorName, '%'))) "
+            + "and (:from is null or a.appointmentTime >= :from) "
+            + "and (:to is null or a.appointmentTime < :to) "
+            + "order by a.appointmentTime desc")
+    List<AppointmentDTO> findPatientAppointments(@Param("patientId") Long patientId,
+                                                 @Param("doctorName") String doctorName,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    // Full history of one patient for the NDJSON export, streamed row by row (fetch size MIN_VALUE) in id
+    // order so it can be merged with the prescriptions cursor; consume inside a transaction and close
+    @Query("select new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, d.name, p.id, p.name, p.email, "
+            + "p.phone, p.address, a.appointmentTime, a.status, a.version) "
+            + "from Appointment a join a.doctor d join a.patient p "
+            + "where p.id = :patientId "
+            + "order by a.id")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    Stream<AppointmentDTO> streamPatientHistory(@Param("patientId") Long patientId);
+
+    // Doctor and patient ids of the given appointments, copied onto their prescription documents
+    @Query("select new com.project.back_end.DTO.AppointmentParticipants(a.id, a.doctor.id, a.patient.id) "
+            + "from Appointment a where a.id in :ids")
+    List<AppointmentParticipants> findParticipantsByIds(@Param("ids") Collection<Long> ids);
+
+    // Reports (same queries as the data.sql procedures). Half-open [start, end) on the bare column,
+    // so the range is served by idx_appt_time instead of a full scan.
+
+    // Appointments per doctor, busiest first
+    @Query("select new com.project.back_end.DTO.DoctorAppointmentCount(d.id, d.name, count(a)) "
+            + "from Appointment a join a.doctor d "
+            + "where a.appointmentTime >= :start and a.appointmentTime < :end "
+            + "group by d.id, d.name "
+            + "order by count(a) desc, d.name")
+    List<DoctorAppointmentCount> countAppointmentsByDoctor(@Param("start") LocalDateTime start,
+                                                           @Param("end") LocalDateTime end);
+
+    // Distinct patients per doctor, most first; pass Limit.of(1) for the top doctor
+    @Query("select new com.project.back_end.DTO.DoctorPatientCount(d.id, d.name, count(distinct a.patient.id)) "
+            + "from Appointment a join a.doctor d "
+            + "where a.appointmentTime >= :start and a.appointmentTime < :end "
+            + "group by d.id, d.name "
+            + "order by count(distinct a.patient.id) desc, d.name")
+    List<DoctorPatientCount> countDistinctPatientsByDoctor(@Param("start") LocalDateTime start,
+                                                           @Param("end") LocalDateTime end,
+                                                           Limit limit);
+
+    // Report rollups (ReportRollups): every appointment from `since` on (idx_appt_time), streamed row by row
+    // (MySQL streams with fetch size MIN_VALUE); must be consumed inside a transaction and closed
+    @Query("select new com.project.back_end.DTO.AppointmentFact(a.doctor.id, a.patient.id, a.appointmentTime) "
+            + "from Appointment a where a.appointmentTime >= :since")
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"))
+    Stream<AppointmentFact> streamAppointmentFacts(@Param("since") LocalDateTime since);
+
+    // Targeted re-reads for rollup entries, both on idx_appt_doctor_time
+    @Query("select count(a) from Appointment a "
+            + "where a.doctor.id = :doctorId and a.appointmentTime >= :start and a.appointmentTime < :end")
+    long countForDoctor(@Param("doctorId") Long doctorId,
+                        @Param("start") LocalDateTime start,
+                        @Param("end") LocalDateTime end);
+
+    @Query("select a.patient.id from Appointment a "
+            + "where a.doctor.id = :doctorId and a.appointmentTime >= :start and a.appointmentTime < :end")
+    List<Long> findPatientIdsForDoctor(@Param("doctorId") Long doctorId,
+                                       @Param("start") LocalDateTime start,
+                                       @Param("end") LocalDateTime end);
 }
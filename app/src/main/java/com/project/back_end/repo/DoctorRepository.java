@@ -1,10 +1,47 @@
 package com.project.back_end.repo;
 
-
-// DoctorRepository.java
-import java.util.Optional;
 import java.util.List;
-public interface DoctorRepository {
-    Optional<com.project.back_end.models.Doctor> findById(Long id);
-    List<com.project.back_end.models.Doctor> findAll();
+import java.util.Optional;
+
+import jakarta.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.models.Doctor;
+
+public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+
+    // Query-cache region of findSpecialties (see application.conf)
+    String SPECIALTIES_REGION = "doctor-specialties";
+
+    // Login lookup
+    Optional<Doctor> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    // Current optimistic-lock version, returned with a 409 after a lost update race
+    @Query("select d.version from Doctor d where d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Doctor list: name LIKE and specialty filters run in SQL, and only the listed columns are selected.
+    // A null argument disables that filter.
+    @Query("select new com.project.back_end.DTO.DoctorSummary(d.id, d.name, d.specialty, d.email, d.phone, d.version) "
+            + "from Doctor d "
+            + "where (:name is null or lower(d.name) like lower(concat('%', :name, '%'))) "
+            + "and (:specialty is null or lower(d.specialty) = lower(:specialty)) "
+            + "order by d.name")
+    List<DoctorSummary> findSummaries(@Param("name") String name, @Param("specialty") String specialty);
+
+    // Distinct specialties for the filter drop-downs. Held in the query cache (region "doctor-specialties");
+    // Hibernate drops the cached result whenever the doctors table is written on this node
+    @Query("select distinct d.specialty from Doctor d order by d.specialty")
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = SPECIALTIES_REGION)
+    })
+    List<String> findSpecialties();
 }
@@ -1,10 +1,22 @@
 package com.project.back_end.repo;
 
-
-// PatientRepository.java
 import java.util.Optional;
-public interface PatientRepository {
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.project.back_end.DTO.PatientSummary;
+import com.project.back_end.models.Patient;
+
+public interface PatientRepository extends JpaRepository<Patient, Long> {
+
+    // Registration uniqueness checks (select 1 ... limit 1, no entity is loaded)
     boolean existsByEmail(String email);
+
     boolean existsByPhone(String phone);
-    Optional<com.project.back_end.models.Patient> findByEmail(String email);
+
+    // Login / token subject lookup
+    Optional<Patient> findByEmail(String email);
+
+    // Profile view: interface projection, selects only the summary columns
+    Optional<PatientSummary> findSummaryById(Long id);
 }
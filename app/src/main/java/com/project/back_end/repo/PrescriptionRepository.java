@@ -1,21 +1,21 @@
 package com.project.back_end.repo;
 
-public interface PrescriptionRepository  {
-// 1. Extend MongoRepository:
-//    - The repository extends MongoRepository<Prescription, String>, which provides basic CRUD functionality for MongoDB.
-//    - This allows the repository to perform operations like save, delete, update, and find without needing to implement these methods manually.
-//    - MongoRepository is tailored for working with MongoDB, unlike JpaRepository which is used for relational databases.
+import java.util.Collection;
+import java.util.List;
 
-// Example: public interface PrescriptionRepository extends MongoRepository<Prescription, String> {}
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
-// 2. Custom Query Method:
+import com.project.back_end.models.Prescription;
 
-//    - **findByAppointmentId**:
-//      - This method retrieves a list of prescriptions associated with a specific appointment.
-//      - Return type: List<Prescription>
-//      - Parameters: Long appointmentId
-//      - MongoRepository automatically derives the query from the method name, in this case, it will find prescriptions by the appointment ID.
+public interface PrescriptionRepository extends MongoRepository<Prescription, String> {
 
+    // Prescriptions issued for one appointment (derived query on appointmentId)
+    List<Prescription> findByAppointmentId(Long appointmentId);
 
+    // Prescriptions of many appointments in one $in query (index appointment_id); only the fields
+    // the views render are returned, doctorId/patientId stay null
+    @Query(value = "{ 'appointmentId': { '$in': ?0 } }",
+           fields = "{ 'appointmentId': 1, 'patientName': 1, 'medication': 1, 'dosage': 1, 'doctorNotes': 1 }")
+    List<Prescription> findByAppointmentIdIn(Collection<Long> appointmentIds);
 }
-
@@ -0,0 +1,45 @@
+package com.project.back_end.services;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Appointment;
+
+/**
+ * JPA entity listener that turns committed appointment writes into
+ * {@link AppointmentChangedEvent}s for the in-memory views that depend on bookings.
+ */
+@Component
+public class AppointmentChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public AppointmentChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    public void onBooked(Appointment appointment) {
+        publish(AppointmentChangedEvent.Type.BOOKED, appointment);
+    }
+
+    @PostUpdate
+    public void onUpdated(Appointment appointment) {
+        publish(AppointmentChangedEvent.Type.UPDATED, appointment);
+    }
+
+    @PostRemove
+    public void onCancelled(Appointment appointment) {
+        publish(AppointmentChangedEvent.Type.CANCELLED, appointment);
+    }
+
+    // The event is captured now (before the entity refreshes its loaded state) and published after commit
+    private void publish(AppointmentChangedEvent.Type type, Appointment appointment) {
+        AppointmentChangedEvent event = AppointmentChangedEvent.of(type, appointment);
+        TransactionHooks.afterCommit(() -> publisher.publishEvent(event));
+    }
+}
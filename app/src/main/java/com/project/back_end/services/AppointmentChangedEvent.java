@@ -0,0 +1,75 @@
+package com.project.back_end.services;
+
+import java.time.LocalDateTime;
+
+import com.project.back_end.models.Appointment;
+
+/**
+ * Published after an appointment insert, update or delete has committed.
+ * Carries both the new and the previously loaded time/status so listeners
+ * can react to reschedules without reloading the row. {@code relayed} marks a change
+ * another node made (see {@link ChangeRelay}); ids, times and flags only, so it can be
+ * sent to other nodes as is.
+ */
+public class AppointmentChangedEvent {
+
+    public enum Type { BOOKED, UPDATED, CANCELLED }
+
+    private final Type type;
+    private final Long appointmentId;
+    private final Long doctorId;
+    private final Long patientId;
+    private final LocalDateTime appointmentTime;
+    private final LocalDateTime previousAppointmentTime;
+    private final int status;
+    private final Integer previousStatus;
+    private final boolean relayed;
+
+    public AppointmentChangedEvent(Type type, Long appointmentId, Long doctorId, Long patientId,
+                                   LocalDateTime appointmentTime, LocalDateTime previousAppointmentTime,
+                                   int status, Integer previousStatus) {
+        this(type, appointmentId, doctorId, patientId, appointmentTime, previousAppointmentTime, status,
+                previousStatus, false);
+    }
+
+    private AppointmentChangedEvent(Type type, Long appointmentId, Long doctorId, Long patientId,
+                                    LocalDateTime appointmentTime, LocalDateTime previousAppointmentTime,
+                                    int status, Integer previousStatus, boolean relayed) {
+        this.type = type;
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+        this.appointmentTime = appointmentTime;
+        this.previousAppointmentTime = previousAppointmentTime;
+        this.status = status;
+        this.previousStatus = previousStatus;
+        this.relayed = relayed;
+    }
+
+    static AppointmentChangedEvent of(Type type, Appointment appointment) {
+        return new AppointmentChangedEvent(type,
+                appointment.getId(),
+                appointment.getDoctor() != null ? appointment.getDoctor().getId() : null,
+                appointment.getPatient() != null ? appointment.getPatient().getId() : null,
+                appointment.getAppointmentTime(),
+                appointment.getLoadedAppointmentTime(),
+                appointment.getStatus(),
+                appointment.getLoadedStatus());
+    }
+
+    // The same change, as received from another node
+    AppointmentChangedEvent relayed() {
+        return new AppointmentChangedEvent(type, appointmentId, doctorId, patientId, appointmentTime,
+                previousAppointmentTime, status, previousStatus, true);
+    }
+
+    public Type getType() { return type; }
+    public Long getAppointmentId() { return appointmentId; }
+    public Long getDoctorId() { return doctorId; }
+    public Long getPatientId() { return patientId; }
+    public LocalDateTime getAppointmentTime() { return appointmentTime; }
+    public LocalDateTime getPreviousAppointmentTime() { return previousAppointmentTime; }
+    public int getStatus() { return status; }
+    public Integer getPreviousStatus() { return previousStatus; }
+    public boolean isRelayed() { return relayed; }
+}
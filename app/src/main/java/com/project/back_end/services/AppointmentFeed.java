@@ -0,0 +1,262 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentDelta;
+import com.project.back_end.repo.AppointmentRepository;
+
+/**
+ * Server-sent events of appointment changes, one stream per open doctor dashboard.
+ *
+ * Committed changes ({@link AppointmentChangedEvent}) are turned into {@link AppointmentDelta}s
+ * on a single thread, in commit order, reading the changed row once however many dashboards
+ * of that doctor are open. Each subscriber has a buffer of {@code appointments.feed.buffer-size}
+ * deltas, drained onto its connection by a small shared pool. A subscriber that falls behind
+ * (full buffer, or deltas lost because the feed itself was overloaded) has its buffer cleared and
+ * gets a single "resync" event, after which the dashboard reloads its list once. An idle
+ * dashboard therefore costs its buffer and connection, never a query.
+ *
+ * Events: "ready" right after subscribing (load the list now), one event per delta named after
+ * its type, "resync", and a comment every {@code appointments.feed.heartbeat-seconds} that
+ * detects closed connections. Changes committed on other nodes arrive through {@link ChangeRelay}.
+ */
+@Component
+public class AppointmentFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentFeed.class);
+
+    // Deltas written per turn before a subscriber yields its sender thread
+    private static final int SEND_BATCH = 32;
+    private static final int CHANGE_QUEUE = 10_000;
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final AppointmentRepository appointmentRepository;
+    private final Map<Long, Set<Subscriber>> byDoctor = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor changes;
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeats;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final Counter resyncs;
+
+    public AppointmentFeed(AppointmentRepository appointmentRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${appointments.feed.buffer-size:64}") int bufferSize,
+                           @Value("${appointments.feed.send-threads:4}") int sendThreads,
+                           @Value("${appointments.feed.timeout-minutes:30}") long timeoutMinutes,
+                           @Value("${appointments.feed.heartbeat-seconds:25}") long heartbeatSeconds) {
+        this.appointmentRepository = appointmentRepository;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.changes = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(CHANGE_QUEUE), namedThreads("appointment-feed"), new ThreadPoolExecutor.AbortPolicy());
+        // one queued turn per subscriber at most, so the queue never holds more than the subscriber count
+        this.senders = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), namedThreads("appointment-feed-send"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(namedThreads("appointment-feed-heartbeat"));
+        this.heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        this.resyncs = Counter.builder("appointment.feed.resyncs")
+                .description("Dashboards told to reload because their delta buffer overflowed")
+                .register(meterRegistry);
+        meterRegistry.gauge("appointment.feed.subscribers", byDoctor,
+                map -> map.values().stream().mapToInt(Set::size).sum());
+    }
+
+    // 1) subscribe: opens a stream for one doctor's dashboard; it ends on timeout, disconnect or shutdown
+    public SseEmitter subscribe(long doctorId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(doctorId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(ex -> remove(subscriber));
+        byDoctor.computeIfAbsent(doctorId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.offer(SseEmitter.event().name("ready").data(Map.of("doctorId", doctorId)));
+        return emitter;
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        Long doctorId = event.getDoctorId();
+        if (doctorId == null || !byDoctor.containsKey(doctorId)) return;
+        try {
+            changes.execute(() -> publish(event));
+        } catch (RejectedExecutionException ex) {
+            // the delta is lost: every dashboard of this doctor has to reload
+            byDoctor.getOrDefault(doctorId, Set.of()).forEach(Subscriber::overflow);
+        }
+    }
+
+    private void publish(AppointmentChangedEvent event) {
+        Set<Subscriber> subscribers = byDoctor.get(event.getDoctorId());
+        if (subscribers == null || subscribers.isEmpty()) return;
+        AppointmentDelta delta;
+        try {
+            delta = delta(event);
+        } catch (RuntimeException ex) {
+            log.warn("Appointment feed: change to appointment {} not pushed", event.getAppointmentId(), ex);
+            subscribers.forEach(Subscriber::overflow);
+            return;
+        }
+        subscribers.forEach(subscriber -> subscriber.offer(delta));
+    }
+
+    private AppointmentDelta delta(AppointmentChangedEvent event) {
+        if (event.getType() == AppointmentChangedEvent.Type.CANCELLED) {
+            return new AppointmentDelta("cancelled", event.getAppointmentId(), event.getAppointmentTime(), null);
+        }
+        AppointmentDTO row = appointmentRepository.findRowById(event.getAppointmentId()).orElse(null);
+        if (row == null) {
+            // deleted again since this change committed; its cancel event follows
+            return new AppointmentDelta("cancelled", event.getAppointmentId(), event.getAppointmentTime(), null);
+        }
+        if (event.getType() == AppointmentChangedEvent.Type.BOOKED) {
+            return new AppointmentDelta("booked", event.getAppointmentId(), null, row);
+        }
+        boolean moved = event.getPreviousAppointmentTime() != null
+                && !Objects.equals(event.getPreviousAppointmentTime(), event.getAppointmentTime());
+        boolean statusOnly = !moved && event.getPreviousStatus() != null && event.getPreviousStatus() != event.getStatus();
+        return new AppointmentDelta(statusOnly ? "status" : "updated", event.getAppointmentId(),
+                moved ? event.getPreviousAppointmentTime() : null, row);
+    }
+
+    private void heartbeat() {
+        byDoctor.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+    }
+
+    private void remove(Subscriber subscriber) {
+        byDoctor.computeIfPresent(subscriber.doctorId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        changes.shutdownNow();
+        senders.shutdownNow();
+        byDoctor.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        byDoctor.clear();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // One open dashboard: a bounded buffer and at most one sender turn queued or running at a time
+    private final class Subscriber implements Runnable {
+
+        private final long doctorId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+
+        private Subscriber(long doctorId, SseEmitter emitter) {
+            this.doctorId = doctorId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Object message) {
+            if (!buffer.offer(message)) {
+                overflow();
+                return;
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            if (buffer.isEmpty()) offer(HEARTBEAT);
+        }
+
+        // Pending deltas are worthless once the dashboard reloads; one resync replaces them
+        private void overflow() {
+            if (overflowed.compareAndSet(false, true)) {
+                resyncs.increment();
+            }
+            buffer.clear();
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    scheduled.set(false); // shutting down
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (overflowed.getAndSet(false)) {
+                    buffer.clear();
+                    emitter.send(SseEmitter.event().name("resync").data(Map.of("doctorId", doctorId)));
+                }
+                Object message;
+                for (int sent = 0; sent < SEND_BATCH && (message = buffer.poll()) != null; sent++) {
+                    send(message);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // client gone or emitter already completed
+                remove(this);
+                buffer.clear();
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (!buffer.isEmpty() || overflowed.get()) {
+                schedule();
+            }
+        }
+
+        private void send(Object message) throws IOException {
+            if (message == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } else if (message instanceof AppointmentDelta delta) {
+                emitter.send(SseEmitter.event().name(delta.type()).id(String.valueOf(delta.appointmentId()))
+                        .data(delta, MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send((SseEmitter.SseEventBuilder) message);
+            }
+        }
+    }
+}
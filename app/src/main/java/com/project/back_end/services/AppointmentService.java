@@ -1,45 +1,413 @@
 package com.project.back_end.services;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AppointmentPage;
+import com.project.back_end.DTO.BookingRequest;
+import com.project.back_end.DTO.BookingResult;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+// `Service` below is the shared service in this package, hence the fully qualified stereotype
+@org.springframework.stereotype.Service // 1) Marks this class as a Spring service component
 public class AppointmentService {
-// 1. **Add @Service Annotation**:
-//    - To indicate that this class is a service layer class for handling business logic.
-//    - The `@Service` annotation should be added before the class declaration to mark it as a Spring service component.
-//    - Instruction: Add `@Service` above the class definition.
-
-// 2. **Constructor Injection for Dependencies**:
-//    - The `AppointmentService` class requires several dependencies like `AppointmentRepository`, `Service`, `TokenService`, `PatientRepository`, and `DoctorRepository`.
-//    - These dependencies should be injected through the constructor.
-//    - Instruction: Ensure constructor injection is used for proper dependency management in Spring.
-
-// 3. **Add @Transactional Annotation for Methods that Modify Database**:
-//    - The methods that modify or update the database should be annotated with `@Transactional` to ensure atomicity and consistency of the operations.
-//    - Instruction: Add the `@Transactional` annotation above methods that interact with the database, especially those modifying data.
-
-// 4. **Book Appointment Method**:
-//    - Responsible for saving the new appointment to the database.
-//    - If the save operation fails, it returns `0`; otherwise, it returns `1`.
-//    - Instruction: Ensure that the method handles any exceptions and returns an appropriate result code.
-
-// 5. **Update Appointment Method**:
-//    - This method is used to update an existing appointment based on its ID.
-//    - It validates whether the patient ID matches, checks if the appointment is available for updating, and ensures that the doctor is available at the specified time.
-//    - If the update is successful, it saves the appointment; otherwise, it returns an appropriate error message.
-//    - Instruction: Ensure proper validation and error handling is included for appointment updates.
-
-// 6. **Cancel Appointment Method**:
-//    - This method cancels an appointment by deleting it from the database.
-//    - It ensures the patient who owns the appointment is trying to cancel it and handles possible errors.
-//    - Instruction: Make sure that the method checks for the patient ID match before deleting the appointment.
-
-// 7. **Get Appointments Method**:
-//    - This method retrieves a list of appointments for a specific doctor on a particular day, optionally filtered by the patient's name.
-//    - It uses `@Transactional` to ensure that database operations are consistent and handled in a single transaction.
-//    - Instruction: Ensure the correct use of transaction boundaries, especially when querying the database for appointments.
-
-// 8. **Change Status Method**:
-//    - This method updates the status of an appointment by changing its value in the database.
-//    - It should be annotated with `@Transactional` to ensure the operation is executed in a single transaction.
-//    - Instruction: Add `@Transactional` before this method to ensure atomicity when updating appointment status.
 
+    private static final Logger log = LoggerFactory.getLogger(AppointmentService.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final SlotBitmapCache slotBitmapCache;
+    private final BookingLocks bookingLocks;
+    private final OptimisticRetry optimisticRetry;
+    private final TransactionTemplate writeTx;
+    private final Service service;
+
+    // 2) Constructor injection
+    public AppointmentService(AppointmentRepository appointmentRepository,
+                              DoctorRepository doctorRepository,
+                              PatientRepository patientRepository,
+                              SlotBitmapCache slotBitmapCache,
+                              BookingLocks bookingLocks,
+                              OptimisticRetry optimisticRetry,
+                              PlatformTransactionManager transactionManager,
+                              Service service) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.slotBitmapCache = slotBitmapCache;
+        this.bookingLocks = bookingLocks;
+        this.optimisticRetry = optimisticRetry;
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.service = service;
+    }
+
+    // 4) bookAppointment: check and insert under the doctor-slot locks (BookingLocks), held until after commit,
+    // so an overlapping booking racing this one checks against it. 201 booked, 400 invalid doctor or time
+    // outside availability, 409 slot already taken (here, or on another node via the unique constraint).
+    // Only the doctor id and the time are read from the request: the row is built fresh like in bookAll, so a
+    // client-sent id/version can never turn the insert into a merge over someone else's appointment
+    public ResponseEntity<Map<String, String>> bookAppointment(Appointment request, long patientId) {
+        Long doctorId = request.getDoctor().getId();
+        LocalDateTime time = request.getAppointmentTime();
+        if (!time.isAfter(LocalDateTime.now())) {
+            return message(HttpStatus.BAD_REQUEST, "Appointment time must be in the future");
+        }
+        return bookingLocks.callLocked(doctorId, time, () -> {
+            int valid = service.validateAppointment(doctorId, time.toLocalDate(), time.toLocalTime());
+            if (valid != SlotBitmapCache.VALID) {
+                return rejection(valid);
+            }
+            try {
+                writeTx.executeWithoutResult(status -> appointmentRepository.save(new Appointment(
+                        doctorRepository.getReferenceById(doctorId), patientRepository.getReferenceById(patientId),
+                        time, 0)));
+                return message(HttpStatus.CREATED, "Appointment booked successfully");
+            } catch (DataIntegrityViolationException ex) {
+                if (isSlotClash(ex)) {
+                    return message(HttpStatus.CONFLICT, "Appointment already booked for given time");
+                }
+                log.error("Booking rejected by a constraint other than {}", Appointment.DOCTOR_TIME_KEY, ex);
+                return message(HttpStatus.INTERNAL_SERVER_ERROR, "Error booking appointment");
+            } catch (RuntimeException ex) {
+                return message(HttpStatus.INTERNAL_SERVER_ERROR, "Error booking appointment");
+            }
+        });
+    }
+
+    // 4b) bookAppointments: many bookings in one transaction, one result per item (same order).
+    // Each doctor-day is loaded once (SlotBitmapCache.plan) and items of the same batch cannot clash
+    // with each other; patients are loaded with one IN query and doctors are only referenced.
+    // Accepted rows go out through saveAll, which Hibernate turns into batched inserts.
+    // The slot locks of every item are held for the whole transaction (taken in order, so no deadlock).
+    public List<BookingResult> bookAppointments(List<BookingRequest> requests, Predicate<BookingRequest> allowed) {
+        BitSet stripes = new BitSet();
+        for (BookingRequest request : requests) {
+            if (request != null && request.doctorId() != null && request.appointmentTime() != null) {
+                bookingLocks.stripes(request.doctorId(), request.appointmentTime(), stripes);
+            }
+        }
+        return bookingLocks.callLocked(stripes, () -> {
+            BookingResult[] results = new BookingResult[requests.size()];
+            try {
+                writeTx.executeWithoutResult(status -> bookAll(requests, allowed, results));
+            } catch (DataIntegrityViolationException ex) {
+                if (!isSlotClash(ex)) {
+                    throw ex;
+                }
+                // Rolled back: a slot was taken on another node between check and insert
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] == null || results[i].booked()) {
+                        results[i] = BookingResult.rejected(i, "Batch rolled back: a slot was booked concurrently, please retry");
+                    }
+                }
+            }
+            return List.of(results);
+        });
+    }
+
+    private void bookAll(List<BookingRequest> requests, Predicate<BookingRequest> allowed, BookingResult[] results) {
+        Set<Long> patientIds = new HashSet<>();
+        for (BookingRequest request : requests) {
+            if (request != null && request.patientId() != null) patientIds.add(request.patientId());
+        }
+        Map<Long, Patient> patients = new HashMap<>();
+        patientRepository.findAllById(patientIds).forEach(p -> patients.put(p.getId(), p));
+
+        Map<String, SlotBitmapCache.DayPlan> plans = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        List<Appointment> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            if (request == null || request.doctorId() == null || request.patientId() == null
+                    || request.appointmentTime() == null) {
+                results[i] = BookingResult.rejected(i, "doctorId, patientId and appointmentTime are required");
+                continue;
+            }
+            if (!allowed.test(request)) {
+                results[i] = BookingResult.rejected(i, "Unauthorized");
+                continue;
+            }
+            if (!request.appointmentTime().isAfter(now)) {
+                results[i] = BookingResult.rejected(i, "Appointment time must be in the future");
+                continue;
+            }
+            Patient patient = patients.get(request.patientId());
+            if (patient == null) {
+                results[i] = BookingResult.rejected(i, "Invalid patient id");
+                continue;
+            }
+
+            LocalDateTime time = request.appointmentTime();
+            SlotBitmapCache.DayPlan plan = plans.computeIfAbsent(request.doctorId() + "@" + time.toLocalDate(),
+                    k -> slotBitmapCache.plan(request.doctorId(), time.toLocalDate()));
+            int valid = plan.reserve(time.toLocalTime());
+            if (valid != SlotBitmapCache.VALID) {
+                results[i] = BookingResult.rejected(i, rejectionMessage(valid));
+                continue;
+            }
+
+            accepted.add(new Appointment(doctorRepository.getReferenceById(request.doctorId()), patient, time, 0));
+            acceptedIndexes.add(i);
+        }
+
+        List<Appointment> saved = appointmentRepository.saveAll(accepted);
+        appointmentRepository.flush();
+        for (int k = 0; k < saved.size(); k++) {
+            int index = acceptedIndexes.get(k);
+            results[index] = BookingResult.booked(index, saved.get(k).getId());
+        }
+    }
+
+    // 5) updateAppointment: only the owning patient may reschedule, and the new time must be free.
+    // A reschedule locks the new time's slots like a booking does (the doctor id is read first).
+    // Concurrency is optimistic (Appointment#version), not a row lock: with the version the client read, a stale
+    // read or a lost race is 409 {message, version: current}; without one the reschedule is idempotent (absolute
+    // time, re-validated per attempt) and a lost race is retried by OptimisticRetry
+    public ResponseEntity<Map<String, String>> updateAppointment(Appointment appointment, Long patientId) {
+        LocalDateTime newTime = appointment.getAppointmentTime();
+        Optional<Long> doctorId = appointment.getId() == null
+                ? Optional.empty()
+                : appointmentRepository.findDoctorIdById(appointment.getId());
+        if (doctorId.isEmpty()) {
+            return message(HttpStatus.BAD_REQUEST, "Appointment not found");
+        }
+        if (newTime == null) {
+            return versionedUpdate(appointment, patientId);
+        }
+        return bookingLocks.callLocked(doctorId.get(), newTime, () -> versionedUpdate(appointment, patientId));
+    }
+
+    private ResponseEntity<Map<String, String>> versionedUpdate(Appointment appointment, Long patientId) {
+        try {
+            if (appointment.getVersion() != null) {
+                return writeTx.execute(status -> applyUpdate(appointment, patientId));
+            }
+            return optimisticRetry.call(() -> writeTx.execute(status -> applyUpdate(appointment, patientId)));
+        } catch (OptimisticLockingFailureException ex) {
+            return currentVersionConflict(appointment.getId());
+        } catch (DataIntegrityViolationException ex) {
+            if (isSlotClash(ex)) {
+                return message(HttpStatus.CONFLICT, "Appointment already booked for given time");
+            }
+            log.error("Update of appointment {} rejected by a constraint other than {}",
+                    appointment.getId(), Appointment.DOCTOR_TIME_KEY, ex);
+            return message(HttpStatus.INTERNAL_SERVER_ERROR, "Error updating appointment");
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> applyUpdate(Appointment appointment, Long patientId) {
+        Optional<Appointment> maybeExisting = appointmentRepository.findById(appointment.getId());
+        if (maybeExisting.isEmpty()) {
+            return message(HttpStatus.BAD_REQUEST, "Appointment not found");
+        }
+
+        Appointment existing = maybeExisting.get();
+        if (existing.getPatient() == null || !Objects.equals(existing.getPatient().getId(), patientId)) {
+            return message(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+        if (appointment.getVersion() != null && !appointment.getVersion().equals(existing.getVersion())) {
+            return versionConflict(existing.getVersion());
+        }
+        if (existing.getStatus() != 0) {
+            return message(HttpStatus.BAD_REQUEST, "Only scheduled appointments can be updated");
+        }
+
+        LocalDateTime newTime = appointment.getAppointmentTime();
+        if (newTime != null && !newTime.equals(existing.getAppointmentTime())) {
+            if (!newTime.isAfter(LocalDateTime.now())) {
+                return message(HttpStatus.BAD_REQUEST, "Appointment time must be in the future");
+            }
+            int valid = service.validateAppointment(existing.getDoctor().getId(),
+                    newTime.toLocalDate(), newTime.toLocalTime(), existing.getAppointmentTime());
+            if (valid != SlotBitmapCache.VALID) {
+                return rejection(valid);
+            }
+            existing.setAppointmentTime(newTime);
+        }
+
+        appointmentRepository.save(existing);
+        return message(HttpStatus.OK, "Appointment updated successfully");
+    }
+
+    // 6) cancelAppointment: deletes the appointment if it belongs to the calling patient. The delete is
+    // version-checked; after a concurrent change (reschedule, status) it re-reads and retries, and answers
+    // 409 {message, version: current} once OptimisticRetry gives up
+    public ResponseEntity<Map<String, String>> cancelAppointment(long id, Long patientId) {
+        try {
+            return optimisticRetry.call(() -> writeTx.execute(status -> applyCancel(id, patientId)));
+        } catch (OptimisticLockingFailureException ex) {
+            return currentVersionConflict(id);
+        } catch (RuntimeException ex) {
+            return message(HttpStatus.INTERNAL_SERVER_ERROR, "Error cancelling appointment");
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> applyCancel(long id, Long patientId) {
+        Optional<Appointment> maybeAppointment = appointmentRepository.findById(id);
+        if (maybeAppointment.isEmpty()) {
+            return message(HttpStatus.BAD_REQUEST, "Appointment not found");
+        }
+
+        Appointment appointment = maybeAppointment.get();
+        if (appointment.getPatient() == null || !Objects.equals(appointment.getPatient().getId(), patientId)) {
+            return message(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+
+        appointmentRepository.delete(appointment);
+        appointmentRepository.flush(); // version check now, inside the retried attempt
+        return message(HttpStatus.OK, "Appointment cancelled successfully");
+    }
+
+    // 7) getAppointments: a doctor's appointments on one day, optionally filtered by patient name ("null" = no filter)
+    // Rows are AppointmentDTO projections; the name filter and the [day, next day) range run in SQL
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAppointments(String patientName, LocalDate date, Long doctorId) {
+        List<AppointmentDTO> appointments = appointmentRepository.findDashboardRows(doctorId,
+                Service.blankToNull(patientName), date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("appointments", appointments);
+        return result;
+    }
+
+    // 7b) getAppointmentPage: appointments in [from, to + 1 day) in (time, id) order, size per page, after the
+    // cursor of the previous page (null for the first). doctorId null lists every doctor (admins).
+    // Keyset pagination: each page starts an index range scan at the cursor instead of skipping rows (OFFSET),
+    // so deep pages cost the same as the first. Throws IllegalArgumentException for a malformed cursor.
+    // The cursor only moves the start forward: one from an earlier position (or another filter) never reaches
+    // back before `from`.
+    @Transactional(readOnly = true)
+    public AppointmentPage getAppointmentPage(Long doctorId, String patientName, LocalDate from, LocalDate to,
+                                              String cursor, int size) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime afterTime = start;
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (parts.length != 2) throw new IllegalArgumentException("Malformed cursor");
+            try {
+                afterTime = LocalDateTime.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Malformed cursor", ex);
+            }
+            if (afterTime.isBefore(start)) {
+                afterTime = start;
+                afterId = 0;
+            }
+        }
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        String name = Service.blankToNull(patientName);
+        List<AppointmentDTO> rows = doctorId != null
+                ? appointmentRepository.findPage(doctorId, name, afterTime, afterId, end, Limit.of(size + 1))
+                : appointmentRepository.findPageAllDoctors(name, afterTime, afterId, end, Limit.of(size + 1));
+
+        if (rows.size() <= size) {
+            return new AppointmentPage(rows, null);
+        }
+        List<AppointmentDTO> page = rows.subList(0, size);
+        AppointmentDTO last = page.get(size - 1);
+        String next = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getAppointmentTime() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        return new AppointmentPage(new ArrayList<>(page), next);
+    }
+
+    // 8) changeStatus: e.g. 0 -> 1 once a prescription has been written. Sets an absolute value, so a lost
+    // version race (e.g. a concurrent reschedule) is retried by OptimisticRetry.
+    // 200 changed, 400 no such appointment, 409 {message, version: current} once the retries run out
+    public ResponseEntity<Map<String, String>> changeStatus(long id, int status) {
+        try {
+            return optimisticRetry.call(() -> writeTx.execute(tx -> applyStatus(id, status)));
+        } catch (OptimisticLockingFailureException ex) {
+            return currentVersionConflict(id);
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> applyStatus(long id, int status) {
+        Optional<Appointment> maybeAppointment = appointmentRepository.findById(id);
+        if (maybeAppointment.isEmpty()) {
+            return message(HttpStatus.BAD_REQUEST, "Appointment not found");
+        }
+        maybeAppointment.get().setStatus(status);
+        appointmentRepository.saveAndFlush(maybeAppointment.get());
+        return message(HttpStatus.OK, "Appointment status updated");
+    }
+
+    private static ResponseEntity<Map<String, String>> rejection(int valid) {
+        HttpStatus status = valid == SlotBitmapCache.BOOKED ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+        return message(status, rejectionMessage(valid));
+    }
+
+    private static String rejectionMessage(int valid) {
+        if (valid == SlotBitmapCache.NO_DOCTOR) return "Invalid doctor id";
+        if (valid == SlotBitmapCache.BOOKED) return "Appointment already booked for given time";
+        return "Doctor not available at the given time";
+    }
+
+    // 409 with the version that won the race; 400 if the winner deleted the appointment
+    private ResponseEntity<Map<String, String>> currentVersionConflict(Long id) {
+        return appointmentRepository.findVersionById(id)
+                .map(AppointmentService::versionConflict)
+                .orElseGet(() -> message(HttpStatus.BAD_REQUEST, "Appointment not found"));
+    }
+
+    // 409 for an update based on a stale read; the client reloads (or re-applies onto) the current version
+    private static ResponseEntity<Map<String, String>> versionConflict(Long currentVersion) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Appointment was changed by someone else; reload and try again");
+        response.put("version", String.valueOf(currentVersion));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    // True only for the (doctor, time) unique key. Anything else, e.g. a duplicate primary key from an
+    // appointment_seq left below MAX(id) (see AppointmentSequence), is a server error, not a taken slot
+    static boolean isSlotClash(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            String text = cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    ? violation.getConstraintName() : cause.getMessage();
+            if (text != null && text.toLowerCase(Locale.ROOT).contains(Appointment.DOCTOR_TIME_KEY)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
+    private static ResponseEntity<Map<String, String>> message(HttpStatus status, String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
 }
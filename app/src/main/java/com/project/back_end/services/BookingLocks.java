@@ -0,0 +1,82 @@
+package com.project.back_end.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks that serialize bookings competing for the same doctor and time.
+ *
+ * An appointment covers {@link SlotBitmapCache#APPOINTMENT_MINUTES} worth of 15-minute slots;
+ * each (doctor, date, slot) hashes to one of {@code appointments.lock-stripes} locks and a
+ * booking holds the locks of every slot it covers. Two overlapping bookings for the same
+ * doctor therefore share at least one lock, while bookings for other doctors or other times
+ * almost always proceed in parallel. Locks are taken in ascending stripe order, so callers
+ * that need several (reschedules, batches) cannot deadlock.
+ *
+ * The lock must be held across check, insert and commit: the booked-slot cache is
+ * invalidated after commit, so the next holder always checks against committed data.
+ * The unique (doctor_id, appointment_time) constraint on appointments remains the
+ * backstop across application nodes.
+ */
+@Component
+public class BookingLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public BookingLocks(@Value("${appointments.lock-stripes:1024}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(2, stripes - 1)) << 1; // next power of two
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    // 1) stripes: adds the stripes covering one appointment of doctorId starting at start
+    public BitSet stripes(long doctorId, LocalDateTime start, BitSet into) {
+        long day = start.toLocalDate().toEpochDay();
+        int startMinute = start.getHour() * 60 + start.getMinute();
+        int from = startMinute / SlotBitmapCache.SLOT_MINUTES;
+        int to = (startMinute + SlotBitmapCache.APPOINTMENT_MINUTES + SlotBitmapCache.SLOT_MINUTES - 1)
+                / SlotBitmapCache.SLOT_MINUTES;
+        for (int slot = from; slot < to; slot++) {
+            into.set(stripe(doctorId, day * SlotBitmapCache.SLOTS_PER_DAY + slot));
+        }
+        return into;
+    }
+
+    // 2) callLocked: runs the action holding every given stripe, acquired in ascending order
+    public <T> T callLocked(BitSet stripes, Supplier<T> action) {
+        int held = 0;
+        int[] acquired = new int[stripes.cardinality()];
+        try {
+            for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+                locks[i].lock();
+                acquired[held++] = i;
+            }
+            return action.get();
+        } finally {
+            while (held > 0) {
+                locks[acquired[--held]].unlock();
+            }
+        }
+    }
+
+    public <T> T callLocked(long doctorId, LocalDateTime start, Supplier<T> action) {
+        return callLocked(stripes(doctorId, start, new BitSet(locks.length)), action);
+    }
+
+    private int stripe(long doctorId, long slot) {
+        long h = doctorId * 0x9E3779B97F4A7C15L + slot;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
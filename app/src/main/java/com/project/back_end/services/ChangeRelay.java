@@ -0,0 +1,71 @@
+package com.project.back_end.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries appointment and patient changes between nodes (doctor changes go through
+ * {@link DoctorCacheInvalidator}).
+ *
+ * Changes committed on this node are forwarded to every {@link InvalidationChannel}. A change
+ * received from another node is published here again, marked as relayed, so every local
+ * listener ({@link SlotBitmapCache}, {@link ResourceVersions}, {@link AppointmentFeed},
+ * {@link ReportRollups}) handles it exactly like a local one, and it is not sent back out.
+ * Delivery is as timely as the channel: until a change arrives, this node answers from its
+ * previous state.
+ */
+@Component
+public class ChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeRelay.class);
+
+    private final ApplicationEventPublisher publisher;
+    private final ObjectProvider<InvalidationChannel> channels;
+
+    public ChangeRelay(ApplicationEventPublisher publisher, ObjectProvider<InvalidationChannel> channels) {
+        this.publisher = publisher;
+        this.channels = channels;
+    }
+
+    // 1) onLocalChange: forwards appointment changes committed on this node. A failing channel is logged and
+    // skipped; the other nodes then miss this change (booked masks and ETags catch up on the next change)
+    @EventListener
+    public void onLocalChange(AppointmentChangedEvent event) {
+        if (event.isRelayed()) return;
+        channels.orderedStream().forEach(channel -> {
+            try {
+                channel.send(event);
+            } catch (RuntimeException ex) {
+                log.warn("Appointment {} change not sent through {}", event.getAppointmentId(),
+                        channel.getClass().getSimpleName(), ex);
+            }
+        });
+    }
+
+    @EventListener
+    public void onLocalChange(PatientChangedEvent event) {
+        if (event.isRelayed()) return;
+        channels.orderedStream().forEach(channel -> {
+            try {
+                channel.send(event);
+            } catch (RuntimeException ex) {
+                log.warn("Patient {} change not sent through {}", event.getPatientId(),
+                        channel.getClass().getSimpleName(), ex);
+            }
+        });
+    }
+
+    // 2) onRemoteChange: another node committed this appointment change
+    public void onRemoteChange(AppointmentChangedEvent event) {
+        publisher.publishEvent(event.relayed());
+    }
+
+    // 3) onRemoteChange: another node committed this patient change
+    public void onRemoteChange(PatientChangedEvent event) {
+        publisher.publishEvent(event.relayed());
+    }
+}
@@ -0,0 +1,99 @@
+package com.project.back_end.services;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+/**
+ * Invalidation of the cached doctor data across nodes.
+ *
+ * On the node that writes, Hibernate keeps the second-level cache (READ_WRITE) and the
+ * specialty query cache in step by itself, and {@link DoctorChangeListener} updates the
+ * in-memory views; the committed change is then forwarded to every
+ * {@link InvalidationChannel}. On the other nodes the channel calls
+ * {@link #onRemoteChange}, which drops that doctor from every local cache, re-indexes it
+ * from the database and moves the doctor-list ETag on ({@link ResourceVersions}).
+ */
+@Component
+public class DoctorCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorCacheInvalidator.class);
+
+    private static final String AVAILABLE_TIMES_ROLE = Doctor.class.getName() + ".availableTimes";
+    private static final String AVAILABILITY_SLOTS_ROLE = Doctor.class.getName() + ".availabilitySlots";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DoctorRepository doctorRepository;
+    private final DoctorSearchIndex index;
+    private final SlotBitmapCache slotBitmapCache;
+    private final ResourceVersions versions;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectProvider<InvalidationChannel> channels;
+
+    public DoctorCacheInvalidator(EntityManagerFactory entityManagerFactory,
+                                  DoctorRepository doctorRepository,
+                                  DoctorSearchIndex index,
+                                  SlotBitmapCache slotBitmapCache,
+                                  ResourceVersions versions,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectProvider<InvalidationChannel> channels) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.doctorRepository = doctorRepository;
+        this.index = index;
+        this.slotBitmapCache = slotBitmapCache;
+        this.versions = versions;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.channels = channels;
+    }
+
+    // 1) onLocalChange: forwards a change committed on this node to the other nodes. A failing channel
+    // is logged and skipped; the other nodes then catch up when their cache entries expire
+    @EventListener
+    public void onLocalChange(DoctorChangedEvent event) {
+        channels.orderedStream().forEach(channel -> {
+            try {
+                channel.send(event);
+            } catch (RuntimeException ex) {
+                log.warn("Doctor {} invalidation not sent through {}", event.getDoctorId(),
+                        channel.getClass().getSimpleName(), ex);
+            }
+        });
+    }
+
+    // 2) onRemoteChange: another node committed a change to this doctor
+    public void onRemoteChange(DoctorChangedEvent event) {
+        long doctorId = event.getDoctorId();
+        evict(doctorId);
+        slotBitmapCache.evictDoctor(doctorId);
+        if (event.isRemoved()) {
+            index.remove(doctorId);
+        } else {
+            // collections are read by the index inside the transaction
+            readOnlyTx.executeWithoutResult(status -> doctorRepository.findById(doctorId)
+                    .ifPresentOrElse(index::put, () -> index.remove(doctorId)));
+        }
+        versions.doctorChanged();
+    }
+
+    // 3) evict: drops the doctor and its availability collections from the second-level cache, and the
+    // cached specialty list (update timestamps are per node, so a remote write does not invalidate it)
+    public void evict(long doctorId) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Doctor.class, doctorId);
+        cache.evictCollectionData(AVAILABLE_TIMES_ROLE, doctorId);
+        cache.evictCollectionData(AVAILABILITY_SLOTS_ROLE, doctorId);
+        cache.evictQueryRegion(DoctorRepository.SPECIALTIES_REGION);
+    }
+}
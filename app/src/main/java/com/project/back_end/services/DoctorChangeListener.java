@@ -0,0 +1,52 @@
+package com.project.back_end.services;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Doctor;
+
+/**
+ * JPA entity listener that keeps the in-memory doctor views ({@link DoctorSearchIndex},
+ * {@link SlotBitmapCache}) in step with the doctors table. Changes are applied after
+ * the surrounding transaction commits, so a rolled-back save is never visible.
+ * Each committed change is also published as a {@link DoctorChangedEvent} for
+ * {@link DoctorCacheInvalidator} to pass on to the other nodes.
+ */
+@Component
+public class DoctorChangeListener {
+
+    private final DoctorSearchIndex index;
+    private final SlotBitmapCache slotBitmapCache;
+    private final ApplicationEventPublisher publisher;
+
+    public DoctorChangeListener(DoctorSearchIndex index, SlotBitmapCache slotBitmapCache,
+                                ApplicationEventPublisher publisher) {
+        this.index = index;
+        this.slotBitmapCache = slotBitmapCache;
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Doctor doctor) {
+        TransactionHooks.afterCommit(() -> {
+            index.put(doctor);
+            slotBitmapCache.evictDoctor(doctor.getId());
+            publisher.publishEvent(new DoctorChangedEvent(doctor.getId(), false));
+        });
+    }
+
+    @PostRemove
+    public void onRemove(Doctor doctor) {
+        Long id = doctor.getId();
+        TransactionHooks.afterCommit(() -> {
+            index.remove(id);
+            slotBitmapCache.evictDoctor(id);
+            publisher.publishEvent(new DoctorChangedEvent(id, true));
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package com.project.back_end.services;
+
+/**
+ * Published after a doctor insert, update or delete has committed on this node.
+ * Only the id travels, so the event can be forwarded to other nodes as is
+ * (see {@link InvalidationChannel}).
+ */
+public class DoctorChangedEvent {
+
+    private final long doctorId;
+    private final boolean removed;
+
+    public DoctorChangedEvent(long doctorId, boolean removed) {
+        this.doctorId = doctorId;
+        this.removed = removed;
+    }
+
+    public long getDoctorId() { return doctorId; }
+    public boolean isRemoved() { return removed; }
+}
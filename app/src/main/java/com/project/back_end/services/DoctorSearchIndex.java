@@ -0,0 +1,243 @@
+package com.project.back_end.services;
+
+import org.hibernate.Hibernate;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.project.back_end.DTO.DoctorListing;
+import com.project.back_end.models.AvailabilitySlot;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+/**
+ * In-memory search index over doctors, used by {@link Service#filterDoctor}.
+ *
+ * Three secondary indexes are kept next to the per-doctor entries:
+ * - specialty: lower-cased specialty -> doctor ids (hash lookup)
+ * - name: every 1..3 character n-gram of the lower-cased name -> doctor ids
+ * - availability: hour of day (0..23) -> doctors with a slot overlapping that hour
+ *
+ * A query starts from the smallest matching posting set and verifies each
+ * candidate against its precomputed entry, so nothing is lower-cased or parsed
+ * per doctor at request time. Results are immutable {@link DoctorListing} rows
+ * built at index time; the Doctor entities themselves are not kept or shared.
+ * The index is loaded once at startup and then updated incrementally by
+ * {@link DoctorChangeListener} on save/delete.
+ */
+@Component
+public class DoctorSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int HOURS = 24;
+
+    private final DoctorRepository doctorRepository;
+
+    private final NavigableMap<Long, Entry> byId = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Long>> bySpecialty = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> byNameGram = new ConcurrentHashMap<>();
+    private final List<Set<Long>> byHour = new ArrayList<>(HOURS);
+
+    public DoctorSearchIndex(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+        for (int h = 0; h < HOURS; h++) {
+            byHour.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    // 1) rebuild: full load once the application is up (collections are read inside the transaction)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        byId.clear();
+        bySpecialty.clear();
+        byNameGram.clear();
+        byHour.forEach(Set::clear);
+        for (Doctor doctor : doctorRepository.findAll()) {
+            put(doctor);
+        }
+    }
+
+    // 2) put: (re)index a single doctor, replacing any previous entry with the same id
+    public synchronized void put(Doctor doctor) {
+        if (doctor == null || doctor.getId() == null) return;
+        remove(doctor.getId());
+
+        Entry entry = new Entry(doctor);
+        byId.put(entry.id, entry);
+        if (entry.specialty != null) {
+            bySpecialty.computeIfAbsent(entry.specialty, k -> ConcurrentHashMap.newKeySet()).add(entry.id);
+        }
+        for (String gram : entry.grams) {
+            byNameGram.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(entry.id);
+        }
+        for (int h = 0; h < HOURS; h++) {
+            if (entry.overlaps(h * 60, h * 60 + 59)) {
+                byHour.get(h).add(entry.id);
+            }
+        }
+    }
+
+    // 3) remove: drop a doctor and all of its postings
+    public synchronized void remove(Long doctorId) {
+        if (doctorId == null) return;
+        Entry old = byId.remove(doctorId);
+        if (old == null) return;
+
+        if (old.specialty != null) {
+            removePosting(bySpecialty, old.specialty, doctorId);
+        }
+        for (String gram : old.grams) {
+            removePosting(byNameGram, gram, doctorId);
+        }
+        byHour.forEach(ids -> ids.remove(doctorId));
+    }
+
+    // 4) search: same semantics as the old findAll()+stream filter in Service.filterDoctor
+    public List<DoctorListing> search(String nameContains,
+                               String specialtyEquals,
+                               LocalTime desiredStart,
+                               LocalTime desiredEnd) {
+        String name = (nameContains != null && !nameContains.isBlank())
+                ? nameContains.toLowerCase(Locale.ROOT) : null;
+        String specialty = (specialtyEquals != null && !specialtyEquals.isBlank())
+                ? specialtyEquals.toLowerCase(Locale.ROOT) : null;
+        boolean byTime = desiredStart != null && desiredEnd != null;
+        int from = byTime ? desiredStart.toSecondOfDay() / 60 : 0;
+        int to = byTime ? desiredEnd.toSecondOfDay() / 60 : 0;
+
+        Set<Long> candidates = null;
+        if (specialty != null) {
+            candidates = smaller(candidates, bySpecialty.getOrDefault(specialty, Collections.emptySet()));
+        }
+        if (name != null) {
+            candidates = smaller(candidates, nameCandidates(name));
+        }
+        if (byTime && candidates == null) {
+            candidates = hourCandidates(from, to);
+        }
+
+        List<DoctorListing> result = new ArrayList<>();
+        Iterable<Entry> scan = candidates == null ? byId.values() : entries(candidates);
+        for (Entry e : scan) {
+            if (name != null && (e.name == null || !e.name.contains(name))) continue;
+            if (specialty != null && !specialty.equals(e.specialty)) continue;
+            if (byTime && !e.overlaps(from, to)) continue;
+            result.add(e.listing);
+        }
+        return result;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // 5) nameOf: display name of an indexed doctor
+    public Optional<String> nameOf(Long doctorId) {
+        Entry entry = byId.get(doctorId);
+        return entry == null ? Optional.empty() : Optional.ofNullable(entry.listing.name());
+    }
+
+    private Set<Long> nameCandidates(String name) {
+        if (name.length() <= GRAM) {
+            return byNameGram.getOrDefault(name, Collections.emptySet());
+        }
+        Set<Long> best = null;
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            best = smaller(best, byNameGram.getOrDefault(name.substring(i, i + GRAM), Collections.emptySet()));
+            if (best.isEmpty()) break;
+        }
+        return best;
+    }
+
+    private Set<Long> hourCandidates(int from, int to) {
+        int first = Math.max(0, from / 60);
+        int last = Math.min(HOURS - 1, to / 60);
+        if (first == last) return byHour.get(first);
+        Set<Long> union = new HashSet<>();
+        for (int h = first; h <= last; h++) {
+            union.addAll(byHour.get(h));
+        }
+        return union;
+    }
+
+    // Candidate ids are emitted in id order, matching the order findAll() used to return.
+    private Iterable<Entry> entries(Set<Long> ids) {
+        List<Long> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        List<Entry> entries = new ArrayList<>(sorted.size());
+        for (Long id : sorted) {
+            Entry e = byId.get(id);
+            if (e != null) entries.add(e);
+        }
+        return entries;
+    }
+
+    private static Set<Long> smaller(Set<Long> current, Set<Long> other) {
+        return (current == null || other.size() < current.size()) ? other : current;
+    }
+
+    private static void removePosting(Map<String, Set<Long>> index, String key, Long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Precomputed, immutable view of one doctor: the listing row, lower-cased keys,
+     * name n-grams and packed availability slots.
+     */
+    private static final class Entry {
+        final Long id;
+        final DoctorListing listing;
+        final String name;
+        final String specialty;
+        final Set<String> grams;
+        final int[] slots; // packed AvailabilitySlot values
+
+        Entry(Doctor doctor) {
+            this.id = doctor.getId();
+            // entries outlive the session, so the serialized collection is copied out while it can be loaded
+            Hibernate.initialize(doctor.getAvailableTimes());
+            this.listing = new DoctorListing(doctor.getId(), doctor.getName(), doctor.getSpecialty(),
+                    doctor.getEmail(), doctor.getPhone(), doctor.getAvailableTimes());
+            this.name = doctor.getName() != null ? doctor.getName().toLowerCase(Locale.ROOT) : null;
+            this.specialty = doctor.getSpecialty() != null ? doctor.getSpecialty().toLowerCase(Locale.ROOT) : null;
+            this.grams = grams(name);
+            this.slots = doctor.getPackedSlots();
+        }
+
+        boolean overlaps(int from, int to) {
+            for (int slot : slots) {
+                if (AvailabilitySlot.endOf(slot) >= from && AvailabilitySlot.startOf(slot) <= to) return true;
+            }
+            return false;
+        }
+
+        private static Set<String> grams(String name) {
+            if (name == null) return Collections.emptySet();
+            Set<String> grams = new HashSet<>();
+            for (int n = 1; n <= GRAM; n++) {
+                for (int i = 0; i + n <= name.length(); i++) {
+                    grams.add(name.substring(i, i + n));
+                }
+            }
+            return grams;
+        }
+    }
+}
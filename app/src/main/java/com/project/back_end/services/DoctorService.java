@@ -1,92 +1,185 @@
 package com.project.back_end.services;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import com.project.back_end.DTO.DoctorSummary;
+import com.project.back_end.DTO.Login;
+import com.project.back_end.models.AvailabilitySlot;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+// `Service` below is the shared service in this package, hence the fully qualified stereotype
+@org.springframework.stereotype.Service
 public class DoctorService {
 
-// 1. **Add @Service Annotation**:
-//    - This class should be annotated with `@Service` to indicate that it is a service layer class.
-//    - The `@Service` annotation marks this class as a Spring-managed bean for business logic.
-//    - Instruction: Add `@Service` above the class declaration.
-
-// 2. **Constructor Injection for Dependencies**:
-//    - The `DoctorService` class depends on `DoctorRepository`, `AppointmentRepository`, and `TokenService`.
-//    - These dependencies should be injected via the constructor for proper dependency management.
-//    - Instruction: Ensure constructor injection is used for injecting dependencies into the service.
-
-// 3. **Add @Transactional Annotation for Methods that Modify or Fetch Database Data**:
-//    - Methods like `getDoctorAvailability`, `getDoctors`, `findDoctorByName`, `filterDoctorsBy*` should be annotated with `@Transactional`.
-//    - The `@Transactional` annotation ensures that database operations are consistent and wrapped in a single transaction.
-//    - Instruction: Add the `@Transactional` annotation above the methods that perform database operations or queries.
-
-// 4. **getDoctorAvailability Method**:
-//    - Retrieves the available time slots for a specific doctor on a particular date and filters out already booked slots.
-//    - The method fetches all appointments for the doctor on the given date and calculates the availability by comparing against booked slots.
-//    - Instruction: Ensure that the time slots are properly formatted and the available slots are correctly filtered.
-
-// 5. **saveDoctor Method**:
-//    - Used to save a new doctor record in the database after checking if a doctor with the same email already exists.
-//    - If a doctor with the same email is found, it returns `-1` to indicate conflict; `1` for success, and `0` for internal errors.
-//    - Instruction: Ensure that the method correctly handles conflicts and exceptions when saving a doctor.
-
-// 6. **updateDoctor Method**:
-//    - Updates an existing doctor's details in the database. If the doctor doesn't exist, it returns `-1`.
-//    - Instruction: Make sure that the doctor exists before attempting to save the updated record and handle any errors properly.
-
-// 7. **getDoctors Method**:
-//    - Fetches all doctors from the database. It is marked with `@Transactional` to ensure that the collection is properly loaded.
-//    - Instruction: Ensure that the collection is eagerly loaded, especially if dealing with lazy-loaded relationships (e.g., available times). 
-
-// 8. **deleteDoctor Method**:
-//    - Deletes a doctor from the system along with all appointments associated with that doctor.
-//    - It first checks if the doctor exists. If not, it returns `-1`; otherwise, it deletes the doctor and their appointments.
-//    - Instruction: Ensure the doctor and their appointments are deleted properly, with error handling for internal issues.
-
-// 9. **validateDoctor Method**:
-//    - Validates a doctor's login by checking if the email and password match an existing doctor record.
-//    - It generates a token for the doctor if the login is successful, otherwise returns an error message.
-//    - Instruction: Make sure to handle invalid login attempts and password mismatches properly with error responses.
-
-// 10. **findDoctorByName Method**:
-//    - Finds doctors based on partial name matching and returns the list of doctors with their available times.
-//    - This method is annotated with `@Transactional` to ensure that the database query and data retrieval are properly managed within a transaction.
-//    - Instruction: Ensure that available times are eagerly loaded for the doctors.
-
-
-// 11. **filterDoctorsByNameSpecilityandTime Method**:
-//    - Filters doctors based on their name, specialty, and availability during a specific time (AM/PM).
-//    - The method fetches doctors matching the name and specialty criteria, then filters them based on their availability during the specified time period.
-//    - Instruction: Ensure proper filtering based on both the name and specialty as well as the specified time period.
-
-// 12. **filterDoctorByTime Method**:
-//    - Filters a list of doctors based on whether their available times match the specified time period (AM/PM).
-//    - This method processes a list of doctors and their available times to return those that fit the time criteria.
-//    - Instruction: Ensure that the time filtering logic correctly handles both AM and PM time slots and edge cases.
-
-
-// 13. **filterDoctorByNameAndTime Method**:
-//    - Filters doctors based on their name and the specified time period (AM/PM).
-//    - Fetches doctors based on partial name matching and filters the results to include only those available during the specified time period.
-//    - Instruction: Ensure that the method correctly filters doctors based on the given name and time of day (AM/PM).
-
-// 14. **filterDoctorByNameAndSpecility Method**:
-//    - Filters doctors by name and specialty.
-//    - It ensures that the resulting list of doctors matches both the name (case-insensitive) and the specified specialty.
-//    - Instruction: Ensure that both name and specialty are considered when filtering doctors.
-
-
-// 15. **filterDoctorByTimeAndSpecility Method**:
-//    - Filters doctors based on their specialty and availability during a specific time period (AM/PM).
-//    - Fetches doctors based on the specified specialty and filters them based on their available time slots for AM/PM.
-//    - Instruction: Ensure the time filtering is accurately applied based on the given specialty and time period (AM/PM).
-
-// 16. **filterDoctorBySpecility Method**:
-//    - Filters doctors based on their specialty.
-//    - This method fetches all doctors matching the specified specialty and returns them.
-//    - Instruction: Make sure the filtering logic works for case-insensitive specialty matching.
-
-// 17. **filterDoctorsByTime Method**:
-//    - Filters all doctors based on their availability during a specific time period (AM/PM).
-//    - The method checks all doctors' available times and returns those available during the specified time period.
-//    - Instruction: Ensure proper filtering logic to handle AM/PM time periods.
-
-   
+    private static final int NOON_MINUTE = 12 * 60;
+
+    private final SlotBitmapCache slotBitmapCache;
+    private final DoctorRepository doctorRepository;
+    private final TokenService tokenService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final Service service;
+    private final OptimisticRetry optimisticRetry;
+    private final Validator validator;
+    private final TransactionTemplate writeTx;
+
+    public DoctorService(SlotBitmapCache slotBitmapCache,
+                         DoctorRepository doctorRepository,
+                         TokenService tokenService,
+                         LoginRateLimiter loginRateLimiter,
+                         Service service,
+                         OptimisticRetry optimisticRetry,
+                         Validator validator,
+                         PlatformTransactionManager transactionManager) {
+        this.slotBitmapCache = slotBitmapCache;
+        this.doctorRepository = doctorRepository;
+        this.tokenService = tokenService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.service = service;
+        this.optimisticRetry = optimisticRetry;
+        this.validator = validator;
+        this.writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    // 4) getDoctorAvailability: the doctor's available windows on a date minus booked appointments.
+    // Answered from the slot bitmaps (availability mask AND NOT booked mask), e.g. ["09:00-10:00", "11:00-12:30"]
+    public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
+        return slotBitmapCache.freeSlots(doctorId, date);
+    }
+
+    // 6) updateDoctor: copies the editable fields (name, specialty, email, phone, availableTimes) onto the stored
+    // doctor; the password is not changed here. Guarded by Doctor#version instead of a row lock: a stale
+    // changes.version or a lost race answers 409 {message, version: current}. Without a version the update is an
+    // idempotent overwrite of absolute values and a lost race is retried. 200, 400 invalid, 404 unknown doctor
+    public ResponseEntity<Map<String, String>> updateDoctor(long doctorId, Doctor changes) {
+        try {
+            if (changes.getVersion() != null) {
+                return writeTx.execute(status -> applyUpdate(doctorId, changes, status));
+            }
+            return optimisticRetry.call(() -> writeTx.execute(status -> applyUpdate(doctorId, changes, status)));
+        } catch (OptimisticLockingFailureException ex) {
+            return doctorRepository.findVersionById(doctorId)
+                    .map(DoctorService::versionConflict)
+                    .orElseGet(() -> message(HttpStatus.NOT_FOUND, "Doctor not found"));
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> applyUpdate(long doctorId, Doctor changes, TransactionStatus status) {
+        Optional<Doctor> maybeDoctor = doctorRepository.findById(doctorId);
+        if (maybeDoctor.isEmpty()) {
+            return message(HttpStatus.NOT_FOUND, "Doctor not found");
+        }
+        Doctor doctor = maybeDoctor.get();
+        if (changes.getVersion() != null && !changes.getVersion().equals(doctor.getVersion())) {
+            return versionConflict(doctor.getVersion());
+        }
+        if (changes.getEmail() != null && !changes.getEmail().equalsIgnoreCase(doctor.getEmail())
+                && doctorRepository.existsByEmail(changes.getEmail())) {
+            return message(HttpStatus.CONFLICT, "Email already in use");
+        }
+
+        if (changes.getName() != null) doctor.setName(changes.getName());
+        if (changes.getSpecialty() != null) doctor.setSpecialty(changes.getSpecialty());
+        if (changes.getEmail() != null) doctor.setEmail(changes.getEmail());
+        if (changes.getPhone() != null) doctor.setPhone(changes.getPhone());
+        if (changes.getAvailableTimes() != null) doctor.setAvailableTimes(new ArrayList<>(changes.getAvailableTimes()));
+
+        Set<ConstraintViolation<Doctor>> violations = validator.validate(doctor);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Doctor> first = violations.iterator().next();
+            status.setRollbackOnly(); // the managed doctor is never flushed
+            return message(HttpStatus.BAD_REQUEST, first.getPropertyPath() + " " + first.getMessage());
+        }
+        return message(HttpStatus.OK, "Doctor updated successfully");
+    }
+
+    // 7) getDoctors: list rows as DoctorSummary projections; name (LIKE) and specialty filters run in SQL, null = no filter
+    @Transactional(readOnly = true)
+    public List<DoctorSummary> getDoctors(String name, String specialty) {
+        return doctorRepository.findSummaries(Service.blankToNull(name), Service.blankToNull(specialty));
+    }
+
+    // 7b) getSpecialties: distinct specialties, answered from the query cache while no doctor is written
+    @Transactional(readOnly = true)
+    public List<String> getSpecialties() {
+        return doctorRepository.findSpecialties();
+    }
+
+    // 9) validateDoctor: email/password login returning a JWT carrying the doctor id.
+    // Rate limited per email and client IP before the lookup; the bcrypt check runs on the hashing pool.
+    public CompletableFuture<ResponseEntity<?>> validateDoctor(Login login, String clientIp) {
+        if (!loginRateLimiter.tryAcquire(login.getEmail(), clientIp)) {
+            return CompletableFuture.completedFuture(service.tooManyAttempts());
+        }
+        try {
+            Optional<Doctor> maybeDoctor = doctorRepository.findByEmail(login.getEmail());
+            if (maybeDoctor.isEmpty()) {
+                return service.unknownAccount(login.getPassword());
+            }
+
+            Doctor doctor = maybeDoctor.get();
+            return service.checkPassword(login.getPassword(), doctor.getPassword(),
+                    () -> tokenService.generateTokenForUser(doctor.getEmail(), "DOCTOR", doctor.getId()),
+                    rehashed -> {
+                        doctor.setPassword(rehashed);
+                        doctorRepository.save(doctor);
+                    });
+        } catch (Exception ex) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Doctor login error: " + ex.getMessage())));
+        }
+    }
+
+    // 12) filterDoctorByTime: keeps doctors with at least one slot in the AM (before 12:00) or PM (from 12:00) half of the day.
+    // Works on the packed AvailabilitySlot ints cached on each Doctor, so no availableTimes string is parsed here.
+    // Name / specialty / time combinations are answered by Service.filterDoctor from the DoctorSearchIndex.
+    public List<Doctor> filterDoctorByTime(List<Doctor> doctors, String amOrPm) {
+        if (amOrPm == null || amOrPm.isBlank()) return doctors;
+        boolean am = "AM".equalsIgnoreCase(amOrPm.trim());
+        List<Doctor> result = new ArrayList<>();
+        for (Doctor doctor : doctors) {
+            for (int slot : doctor.getPackedSlots()) {
+                boolean match = am
+                        ? AvailabilitySlot.startOf(slot) < NOON_MINUTE
+                        : AvailabilitySlot.endOf(slot) > NOON_MINUTE;
+                if (match) {
+                    result.add(doctor);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // 409 for an update based on a stale read; carries the version the client should reload
+    private static ResponseEntity<Map<String, String>> versionConflict(Long currentVersion) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Doctor was changed by someone else; reload and try again");
+        response.put("version", String.valueOf(currentVersion));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    private static ResponseEntity<Map<String, String>> message(HttpStatus status, String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
 }
@@ -0,0 +1,25 @@
+package com.project.back_end.services;
+
+/**
+ * Hook that keeps the in-memory state of several application nodes coherent.
+ *
+ * Every node caches doctors locally (Hibernate second-level cache, {@link DoctorSearchIndex},
+ * {@link SlotBitmapCache}), versions the lists it serves ({@link ResourceVersions}) and pushes
+ * appointment changes to its own dashboards ({@link AppointmentFeed}); on its own, each only sees
+ * its own writes. A multi-node deployment registers a bean implementing this interface over its
+ * messaging of choice (Redis pub/sub, a JMS topic, ...): the {@code send} methods broadcast a
+ * committed change, and the receiving side of every other node passes doctor changes to
+ * {@link DoctorCacheInvalidator#onRemoteChange} and appointment and patient changes to
+ * {@link ChangeRelay}. With no bean registered the application runs single-node and nothing is sent.
+ *
+ * All events carry ids, times and flags only, so they serialize as they are.
+ */
+public interface InvalidationChannel {
+
+    // Each is called after commit on the node that made the change; must not block for long
+    void send(DoctorChangedEvent event);
+
+    void send(AppointmentChangedEvent event);
+
+    void send(PatientChangedEvent event);
+}
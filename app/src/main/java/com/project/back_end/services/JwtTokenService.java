@@ -0,0 +1,103 @@
+package com.project.back_end.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * HMAC-SHA JWT implementation of {@link TokenService} (jjwt 0.12).
+ *
+ * Tokens carry the subject (username/email), a {@code role} claim and, when known,
+ * the principal's database {@code id}. Verified tokens are remembered in
+ * {@link VerifiedTokenCache}, so repeat calls with the same token skip parsing and
+ * signature verification until the token expires.
+ */
+@Component
+public class JwtTokenService implements TokenService {
+
+    static final String ROLE_CLAIM = "role";
+    static final String ID_CLAIM = "id";
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Duration ttl;
+    private final VerifiedTokenCache cache;
+
+    public JwtTokenService(@Value("${jwt.secret}") String secret,
+                           @Value("${jwt.ttl-hours:24}") long ttlHours,
+                           VerifiedTokenCache cache) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean validate(String token) {
+        return verify(token).isPresent();
+    }
+
+    @Override
+    public String generateTokenForUser(String subject, String role) {
+        return generateTokenForUser(subject, role, null);
+    }
+
+    @Override
+    public String generateTokenForUser(String subject, String role, Long principalId) {
+        Instant now = Instant.now();
+        var builder = Jwts.builder()
+                .subject(subject)
+                .claim(ROLE_CLAIM, role)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(ttl)));
+        if (principalId != null) {
+            builder.claim(ID_CLAIM, principalId);
+        }
+        return builder.signWith(signingKey).compact();
+    }
+
+    @Override
+    public String extractSubject(String token) {
+        return verify(token).map(VerifiedPrincipal::getSubject).orElse(null);
+    }
+
+    // verify: cached principal, or parse + verify the signature once and cache the result until exp.
+    // Empty for missing, malformed, tampered or expired tokens (those are never cached).
+    @Override
+    public Optional<VerifiedPrincipal> verify(String token) {
+        if (token == null || token.isBlank()) return Optional.empty();
+
+        String digest = VerifiedTokenCache.digest(token);
+        VerifiedPrincipal cached = cache.get(digest);
+        if (cached != null) return Optional.of(cached);
+
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Number id = claims.get(ID_CLAIM, Number.class);
+            Date exp = claims.getExpiration();
+            VerifiedPrincipal principal = new VerifiedPrincipal(
+                    claims.getSubject(),
+                    claims.get(ROLE_CLAIM, String.class),
+                    id != null ? id.longValue() : null,
+                    exp != null ? exp.toInstant() : null);
+            if (exp != null) {
+                cache.put(digest, principal);
+            }
+            return Optional.of(principal);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+}
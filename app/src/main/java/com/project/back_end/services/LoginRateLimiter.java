@@ -0,0 +1,156 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Brute-force guard for the login paths, consulted before any repository call.
+ *
+ * Attempts are counted per login name (username/email) and per client IP over a
+ * sliding window of {@code security.login.window-seconds}. Counters live in two
+ * fixed {@link AtomicLongArray}s (one per key type) of {@code security.login.stripes}
+ * slots each, so memory is bounded no matter how many distinct keys attackers use.
+ * Every key hashes to two slots (independent hashes) and the smaller estimate wins,
+ * which keeps collisions from locking out innocent users, count-min style.
+ *
+ * Each slot packs window number (24 bits), current-window count (20 bits) and
+ * previous-window count (20 bits) into one long and is updated with a CAS loop,
+ * so there are no locks. The sliding estimate is
+ * {@code previous * (1 - elapsed fraction of current window) + current}.
+ *
+ * Rejections are published as {@code login.ratelimit.rejections{key=login|ip}}.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long WINDOW_MASK = (1L << 24) - 1;
+
+    private final AtomicLongArray loginSlots;
+    private final AtomicLongArray ipSlots;
+    private final int slotMask;
+    private final long windowMillis;
+    private final int maxPerLogin;
+    private final int maxPerIp;
+    private final LongSupplier clock;
+
+    private final Counter loginRejections;
+    private final Counter ipRejections;
+
+    public LoginRateLimiter(@Value("${security.login.stripes:4096}") int stripes,
+                            @Value("${security.login.window-seconds:60}") int windowSeconds,
+                            @Value("${security.login.max-attempts-per-login:10}") int maxPerLogin,
+                            @Value("${security.login.max-attempts-per-ip:50}") int maxPerIp,
+                            MeterRegistry meterRegistry) {
+        this(stripes, windowSeconds * 1000L, maxPerLogin, maxPerIp, meterRegistry, System::currentTimeMillis);
+    }
+
+    LoginRateLimiter(int stripes, long windowMillis, int maxPerLogin, int maxPerIp,
+                     MeterRegistry meterRegistry, LongSupplier clock) {
+        int size = Integer.highestOneBit(Math.max(2, stripes - 1)) << 1; // next power of two
+        this.loginSlots = new AtomicLongArray(size);
+        this.ipSlots = new AtomicLongArray(size);
+        this.slotMask = size - 1;
+        this.windowMillis = windowMillis;
+        this.maxPerLogin = maxPerLogin;
+        this.maxPerIp = maxPerIp;
+        this.clock = clock;
+        this.loginRejections = Counter.builder("login.ratelimit.rejections").tag("key", "login")
+                .description("Login attempts rejected because of too many attempts for the account").register(meterRegistry);
+        this.ipRejections = Counter.builder("login.ratelimit.rejections").tag("key", "ip")
+                .description("Login attempts rejected because of too many attempts from the client IP").register(meterRegistry);
+    }
+
+    // tryAcquire: records the attempt and returns true, or returns false (nothing recorded) when over the limit
+    public boolean tryAcquire(String login, String clientIp) {
+        long now = clock.getAsLong();
+        long window = now / windowMillis;
+        double elapsed = (double) (now % windowMillis) / windowMillis;
+
+        String loginKey = login != null ? login.trim().toLowerCase(Locale.ROOT) : "";
+        if (estimate(loginSlots, loginKey, window, elapsed) >= maxPerLogin) {
+            loginRejections.increment();
+            return false;
+        }
+        if (clientIp != null && estimate(ipSlots, clientIp, window, elapsed) >= maxPerIp) {
+            ipRejections.increment();
+            return false;
+        }
+
+        increment(loginSlots, loginKey, window);
+        if (clientIp != null) {
+            increment(ipSlots, clientIp, window);
+        }
+        return true;
+    }
+
+    public long retryAfterSeconds() {
+        return Math.max(1, windowMillis / 1000);
+    }
+
+    private double estimate(AtomicLongArray slots, String key, long window, double elapsed) {
+        int h = key.hashCode();
+        return Math.min(estimate(slots.get(slot(h)), window, elapsed),
+                estimate(slots.get(slot(rehash(h))), window, elapsed));
+    }
+
+    private void increment(AtomicLongArray slots, String key, long window) {
+        int h = key.hashCode();
+        increment(slots, slot(h), window);
+        increment(slots, slot(rehash(h)), window);
+    }
+
+    private static void increment(AtomicLongArray slots, int index, long window) {
+        long current;
+        long updated;
+        do {
+            current = slots.get(index);
+            long rolled = roll(current, window);
+            long count = Math.min(COUNT_MASK, countOf(rolled) + 1);
+            updated = pack(window, count, previousOf(rolled));
+        } while (!slots.compareAndSet(index, current, updated));
+    }
+
+    private static double estimate(long packed, long window, double elapsed) {
+        long rolled = roll(packed, window);
+        return previousOf(rolled) * (1.0 - elapsed) + countOf(rolled);
+    }
+
+    // Brings a slot to the given window: same window unchanged, next window shifts current into previous
+    private static long roll(long packed, long window) {
+        long slotWindow = packed >>> (2 * COUNT_BITS);
+        long w = window & WINDOW_MASK;
+        if (slotWindow == w) return packed;
+        if (((slotWindow + 1) & WINDOW_MASK) == w) return pack(window, 0, countOf(packed));
+        return pack(window, 0, 0);
+    }
+
+    private static long pack(long window, long count, long previous) {
+        return ((window & WINDOW_MASK) << (2 * COUNT_BITS)) | (count << COUNT_BITS) | previous;
+    }
+
+    private static long countOf(long packed) { return (packed >>> COUNT_BITS) & COUNT_MASK; }
+    private static long previousOf(long packed) { return packed & COUNT_MASK; }
+
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & slotMask;
+    }
+
+    // Second, independent slot choice (murmur3 finalizer)
+    private static int rehash(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Retry policy for updates guarded by a JPA {@code @Version} column.
+ *
+ * Only for idempotent updates: ones that set absolute values and re-read and re-validate
+ * the row on every attempt (each attempt is its own transaction). An update whose client
+ * named the version it read is never retried; its conflict goes back to the client.
+ * Attempts are spaced by a short random backoff so the losers of a race do not collide
+ * again on the same row.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public OptimisticRetry(MeterRegistry meterRegistry,
+                           @Value("${concurrency.optimistic.max-attempts:3}") int maxAttempts,
+                           @Value("${concurrency.optimistic.backoff-ms:20}") long backoffMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = backoffMillis;
+        this.retries = Counter.builder("optimistic.lock.retries")
+                .description("Updates re-run after losing a version race").register(meterRegistry);
+        this.exhausted = Counter.builder("optimistic.lock.exhausted")
+                .description("Updates that lost every attempt and were answered 409").register(meterRegistry);
+    }
+
+    // 1) call: runs attempt until it commits without a version conflict; rethrows the last conflict after
+    // max-attempts
+    public <T> T call(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException ex) {
+                if (i >= maxAttempts) {
+                    exhausted.increment();
+                    throw ex;
+                }
+                retries.increment();
+                // up to backoff-ms per attempt so far, randomized
+                long pause = ThreadLocalRandom.current().nextLong(backoffMillis * i + 1);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pause));
+            }
+        }
+    }
+}
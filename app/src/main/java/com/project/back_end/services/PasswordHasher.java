@@ -0,0 +1,55 @@
+package com.project.back_end.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * bcrypt password hashing with a configurable cost ({@code security.password.bcrypt-cost}).
+ *
+ * Values that are not bcrypt hashes are treated as legacy plaintext passwords:
+ * they are still accepted (constant-time compare) and always reported by
+ * {@link #needsRehash}, so they are replaced by a hash on the next login.
+ *
+ * Hashing is deliberately slow; callers on the request path go through
+ * {@link PasswordHashingPool} instead of calling this directly.
+ */
+@Component
+public class PasswordHasher {
+
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordHasher(@Value("${security.password.bcrypt-cost:12}") int cost) {
+        this.cost = cost;
+        this.encoder = new BCryptPasswordEncoder(cost);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public String hash(String raw) {
+        return encoder.encode(raw);
+    }
+
+    public boolean matches(String raw, String stored) {
+        if (raw == null || stored == null) return false;
+        if (isBcrypt(stored)) {
+            return encoder.matches(raw, stored);
+        }
+        return MessageDigest.isEqual(raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // true for legacy plaintext values and for hashes made with a lower cost than configured
+    public boolean needsRehash(String stored) {
+        return stored == null || !isBcrypt(stored) || encoder.upgradeEncoding(stored);
+    }
+
+    static boolean isBcrypt(String stored) {
+        return stored.length() == 60 && stored.startsWith("$2");
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.back_end.services;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated, bounded executor for password verification.
+ *
+ * bcrypt costs tens to hundreds of milliseconds of CPU per login; running it
+ * here keeps Tomcat request threads free (controllers return the future) and caps
+ * concurrent hashing at {@code security.password.pool-threads}. When the pool and its
+ * queue ({@code security.password.queue-capacity}) are full, work is rejected
+ * immediately with {@link RejectedExecutionException}, which the login paths
+ * turn into 429 Too Many Requests.
+ *
+ * Logins for accounts that do not exist go through {@link #verifyUnknown}, which does
+ * the same bcrypt work, so response times do not tell existing accounts apart.
+ */
+@Component
+public class PasswordHashingPool {
+
+    private final PasswordHasher hasher;
+    private final ThreadPoolExecutor executor;
+    // A real hash at the configured cost, never matched by a login (see verifyUnknown)
+    private final String unknownAccountHash;
+
+    public PasswordHashingPool(PasswordHasher hasher,
+                               @Value("${security.password.pool-threads:0}") int threads,
+                               @Value("${security.password.queue-capacity:64}") int queueCapacity) {
+        this.hasher = hasher;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads(), new ThreadPoolExecutor.AbortPolicy());
+        this.unknownAccountHash = hasher.hash(UUID.randomUUID().toString());
+    }
+
+    // 1) verify: compare off the request thread; throws RejectedExecutionException when saturated
+    public CompletableFuture<Boolean> verify(String raw, String stored) {
+        return CompletableFuture.supplyAsync(() -> hasher.matches(raw, stored), executor);
+    }
+
+    // 1b) verifyUnknown: the work of verify for a login whose account does not exist; always false.
+    // Throws RejectedExecutionException when saturated, like verify
+    public CompletableFuture<Boolean> verifyUnknown(String raw) {
+        return CompletableFuture.supplyAsync(() -> {
+            hasher.matches(raw, unknownAccountHash);
+            return false;
+        }, executor);
+    }
+
+    // 2) hash: produce a fresh hash with the configured cost (used for rehash-on-login and registration)
+    public CompletableFuture<String> hash(String raw) {
+        return CompletableFuture.supplyAsync(() -> hasher.hash(raw), executor);
+    }
+
+    public boolean needsRehash(String stored) {
+        return hasher.needsRehash(stored);
+    }
+
+    public int queuedTasks() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.project.back_end.services;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.project.back_end.models.Patient;
+
+/**
+ * JPA entity listener that publishes a {@link PatientChangedEvent} once a patient update or
+ * delete has committed. New patients have no appointments yet, so inserts are not published.
+ */
+@Component
+public class PatientChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public PatientChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Patient patient) {
+        long id = patient.getId();
+        TransactionHooks.afterCommit(() -> publisher.publishEvent(new PatientChangedEvent(id)));
+    }
+}
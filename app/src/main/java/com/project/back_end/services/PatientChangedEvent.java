@@ -0,0 +1,30 @@
+package com.project.back_end.services;
+
+/**
+ * Published after a patient update or delete has committed. The patient's name and contact
+ * details appear in appointment rows, so their ETags depend on it (see {@link ResourceVersions}).
+ * Only the id travels, like {@link DoctorChangedEvent}; {@code relayed} marks a change another
+ * node made (see {@link ChangeRelay}).
+ */
+public class PatientChangedEvent {
+
+    private final long patientId;
+    private final boolean relayed;
+
+    public PatientChangedEvent(long patientId) {
+        this(patientId, false);
+    }
+
+    private PatientChangedEvent(long patientId, boolean relayed) {
+        this.patientId = patientId;
+        this.relayed = relayed;
+    }
+
+    // The same change, as received from another node
+    PatientChangedEvent relayed() {
+        return new PatientChangedEvent(patientId, true);
+    }
+
+    public long getPatientId() { return patientId; }
+    public boolean isRelayed() { return relayed; }
+}
@@ -0,0 +1,138 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.PatientHistoryRow;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+
+/**
+ * Writes a patient's full appointment and prescription history as NDJSON, one
+ * {@link PatientHistoryRow} per line, without holding the history in memory.
+ *
+ * Appointments come from a MySQL streaming result (AppointmentDTO projection, no entity
+ * graph) and prescriptions from a MongoDB cursor, both ordered by appointment id, and are
+ * merge-joined as they arrive. Heap use is one row plus the driver buffers regardless of
+ * how long the history is. The read-only transaction (and its connection) stays open for
+ * the duration of the export, so at most {@code patient.history.max-concurrent-exports}
+ * exports run at once; {@link #open} refuses the rest instead of letting long exports
+ * drain the connection pool.
+ */
+@Component
+public class PatientHistoryExport {
+
+    // Rows between flushes of the response
+    private static final int FLUSH_EVERY = 200;
+
+    private final AppointmentRepository appointmentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectWriter rowWriter;
+    private final Semaphore running;
+
+    public PatientHistoryExport(AppointmentRepository appointmentRepository,
+                                MongoTemplate mongoTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${patient.history.max-concurrent-exports:4}") int maxConcurrentExports) {
+        this.appointmentRepository = appointmentRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.rowWriter = objectMapper.writerFor(PatientHistoryRow.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+        this.running = new Semaphore(maxConcurrentExports);
+    }
+
+    // 1) open: a response body exporting the patient's history, or empty when max-concurrent-exports are
+    // already running. The slot is taken now and given back once the body has been written (or has failed)
+    public Optional<StreamingResponseBody> open(long patientId) {
+        if (!running.tryAcquire()) {
+            return Optional.empty();
+        }
+        return Optional.of(out -> {
+            try {
+                write(patientId, out);
+            } finally {
+                running.release();
+            }
+        });
+    }
+
+    // 2) write: streams every row of the patient's history to out; does not close out.
+    // Not limited by itself: callers serving requests go through open
+    public void write(long patientId, OutputStream out) {
+        Query prescriptionsQuery = Query.query(Criteria.where("patientId").is(patientId))
+                .with(Sort.by("appointmentId"));
+        readOnlyTx.executeWithoutResult(status -> {
+            try (Stream<AppointmentDTO> appointments = appointmentRepository.streamPatientHistory(patientId);
+                 Stream<Prescription> prescriptions = mongoTemplate.stream(prescriptionsQuery, Prescription.class);
+                 SequenceWriter rows = rowWriter.writeValues(out)) {
+                merge(appointments.iterator(), prescriptions.iterator(), rows);
+                rows.flush();
+                out.write('\n');
+                out.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    private static void merge(Iterator<AppointmentDTO> appointments, Iterator<Prescription> prescriptions,
+                              SequenceWriter rows) throws IOException {
+        Prescription next = prescriptions.hasNext() ? prescriptions.next() : null;
+        int written = 0;
+        while (appointments.hasNext()) {
+            AppointmentDTO appointment = appointments.next();
+            // prescriptions of appointments that no longer exist
+            while (next != null && precedes(next, appointment.getId())) {
+                rows.write(new PatientHistoryRow(null, List.of(next)));
+                next = prescriptions.hasNext() ? prescriptions.next() : null;
+            }
+            List<Prescription> own = new ArrayList<>(1);
+            while (next != null && appointment.getId().equals(next.getAppointmentId())) {
+                own.add(next);
+                next = prescriptions.hasNext() ? prescriptions.next() : null;
+            }
+            rows.write(new PatientHistoryRow(appointment, own));
+            if (++written % FLUSH_EVERY == 0) {
+                rows.flush();
+            }
+        }
+        while (next != null) {
+            rows.write(new PatientHistoryRow(null, List.of(next)));
+            next = prescriptions.hasNext() ? prescriptions.next() : null;
+        }
+    }
+
+    private static boolean precedes(Prescription prescription, Long appointmentId) {
+        return prescription.getAppointmentId() == null || prescription.getAppointmentId() < appointmentId;
+    }
+}
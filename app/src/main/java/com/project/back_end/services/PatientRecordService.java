@@ -0,0 +1,170 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.PatientRecord;
+import com.project.back_end.DTO.PatientSummary;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PatientRepository;
+
+/**
+ * A doctor's view of one patient, composed from MySQL (profile and appointments) and
+ * MongoDB (prescriptions).
+ *
+ * Both stores are queried at the same time on a small bounded pool, so the call takes
+ * about max(sql, mongo) instead of their sum. Prescriptions carry the doctor and patient
+ * ids of their appointment, so the Mongo query does not wait for the SQL one.
+ *
+ * Each side has its own deadline ({@code records.timeout-ms}). A side that fails, times
+ * out or finds the pool full is left out and named in {@link PatientRecord#missing()};
+ * the caller still gets the other one. The SQL transaction and the Mongo query (maxTimeMS)
+ * carry the same timeout, so an abandoned query is also cut off in the store.
+ */
+@org.springframework.stereotype.Service
+public class PatientRecordService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientRecordService.class);
+
+    public static final String APPOINTMENTS = "appointments";
+    public static final String PRESCRIPTIONS = "prescriptions";
+
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRepository patientRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public PatientRecordService(AppointmentRepository appointmentRepository,
+                                PatientRepository patientRepository,
+                                MongoTemplate mongoTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${records.fetch-threads:16}") int threads,
+                                @Value("${records.queue-capacity:64}") int queueCapacity,
+                                @Value("${records.timeout-ms:2000}") long timeoutMillis) {
+        this.appointmentRepository = appointmentRepository;
+        this.patientRepository = patientRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.readOnlyTx.setTimeout((int) Math.max(1, (timeoutMillis + 999) / 1000));
+        this.meterRegistry = meterRegistry;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // 1) getRecord: SQL and Mongo halves fetched concurrently, then joined. Never completes exceptionally;
+    // a half that did not arrive is null in the result and listed in missing
+    public CompletableFuture<PatientRecord> getRecord(long doctorId, long patientId) {
+        CompletableFuture<SqlPart> sql = fetch(APPOINTMENTS, () -> readOnlyTx.execute(status ->
+                new SqlPart(patientRepository.findSummaryById(patientId).orElse(null),
+                        appointmentRepository.findPatientHistory(doctorId, patientId))));
+        // index doctor_patient; maxTimeMS makes the server give up when the caller does
+        Query prescriptions = Query.query(Criteria.where("doctorId").is(doctorId).and("patientId").is(patientId))
+                .maxTimeMsec(timeoutMillis);
+        CompletableFuture<List<Prescription>> mongo = fetch(PRESCRIPTIONS,
+                () -> mongoTemplate.find(prescriptions, Prescription.class));
+        return sql.thenCombine(mongo, PatientRecordService::join);
+    }
+
+    // The profile is only returned to a doctor who has appointments with the patient
+    private static PatientRecord join(SqlPart sql, List<Prescription> prescriptions) {
+        List<String> missing = new ArrayList<>(2);
+        PatientSummary patient = null;
+        List<AppointmentDTO> appointments = null;
+        if (sql == null) {
+            missing.add(APPOINTMENTS);
+        } else {
+            appointments = sql.appointments();
+            patient = appointments.isEmpty() ? null : sql.patient();
+        }
+
+        Map<Long, List<Prescription>> byAppointment = null;
+        if (prescriptions == null) {
+            missing.add(PRESCRIPTIONS);
+        } else {
+            byAppointment = new LinkedHashMap<>();
+            for (Prescription prescription : prescriptions) {
+                byAppointment.computeIfAbsent(prescription.getAppointmentId(), id -> new ArrayList<>()).add(prescription);
+            }
+        }
+        return new PatientRecord(patient, appointments, byAppointment, !missing.isEmpty(), missing);
+    }
+
+    // Runs one half on the pool with its deadline; failures become null, timed in patient.record.fetch
+    private <T> CompletableFuture<T> fetch(String part, Supplier<T> query) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(query, executor);
+        } catch (RejectedExecutionException ex) {
+            future = CompletableFuture.failedFuture(ex);
+        }
+        return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).handle((result, ex) -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            String outcome = cause == null ? "ok"
+                    : cause instanceof TimeoutException ? "timeout"
+                    : cause instanceof RejectedExecutionException ? "rejected"
+                    : "error";
+            sample.stop(Timer.builder("patient.record.fetch")
+                    .description("Latency of each half of the patient-record view")
+                    .tag("part", part)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            if (cause instanceof TimeoutException) {
+                log.warn("Patient record: {} left out after {} ms", part, timeoutMillis);
+            } else if (cause != null) {
+                log.warn("Patient record: {} left out ({})", part, outcome, cause);
+            }
+            return cause == null ? result : null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "patient-record-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record SqlPart(PatientSummary patient, List<AppointmentDTO> appointments) {
+    }
+}
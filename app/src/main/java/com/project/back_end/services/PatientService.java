@@ -1,10 +1,45 @@
 package com.project.back_end.services;
 
-// PatientService.java
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
-import com.project.back_end.models.Appointment;
 
-public interface PatientService {
-    List<Appointment> getAllAppointmentsForPatient(Long patientId);
-    List<Appointment> filterAppointmentsForPatient(Long patientId, String conditionContains, String doctorNameContains);
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.repo.AppointmentRepository;
+
+// `Service` is the shared service in this package, hence the fully qualified stereotype
+@org.springframework.stereotype.Service
+public class PatientService {
+
+    private final AppointmentRepository appointmentRepository;
+
+    public PatientService(AppointmentRepository appointmentRepository) {
+        this.appointmentRepository = appointmentRepository;
+    }
+
+    // 1) getPatientAppointments: every appointment of one patient, newest first, as AppointmentDTO rows
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> getPatientAppointments(Long patientId) {
+        return appointmentRepository.findPatientAppointments(patientId, null, null, null);
+    }
+
+    // 2) filterAppointments: condition "future" (from now on), "past" (before now) or null / "null" for both;
+    // doctorName matches part of the doctor's name, null / "null" for any. Filtering runs in SQL.
+    // Throws IllegalArgumentException for any other condition
+    @Transactional(readOnly = true)
+    public List<AppointmentDTO> filterAppointments(Long patientId, String condition, String doctorName) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        String when = Service.blankToNull(condition);
+        if ("future".equalsIgnoreCase(when)) {
+            from = now;
+        } else if ("past".equalsIgnoreCase(when)) {
+            to = now;
+        } else if (when != null) {
+            throw new IllegalArgumentException("Unknown condition: " + condition);
+        }
+        return appointmentRepository.findPatientAppointments(patientId, Service.blankToNull(doctorName), from, to);
+    }
 }
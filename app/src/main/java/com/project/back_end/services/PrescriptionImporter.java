@@ -0,0 +1,308 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.project.back_end.DTO.AppointmentParticipants;
+import com.project.back_end.DTO.ImportReport;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+
+/**
+ * Streaming import of historical prescriptions, one JSON document per line (NDJSON).
+ *
+ * Lines are parsed and validated one at a time (the same constraints as
+ * {@code POST /prescription}) and collected into batches of {@code prescriptions.import.batch-size}.
+ * Each batch gets its doctor and patient ids from MySQL in one IN query and is written with
+ * one unordered bulk insert, so a bad document (or a second prescription for an appointment,
+ * rejected by the unique appointment_id index) does not stop the rest of its batch.
+ *
+ * At most {@code prescriptions.import.max-in-flight} batches are being written at once,
+ * across all imports; the reader blocks until a slot frees up. Memory therefore stays at
+ * roughly (max-in-flight + 1) batches whatever the size of the file.
+ */
+@Component
+public class PrescriptionImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionImporter.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final AppointmentRepository appointmentRepository;
+    private final Validator validator;
+    private final ObjectReader reader;
+    private final int batchSize;
+    private final int maxReportedRejects;
+    private final Semaphore inFlight;
+    private final ExecutorService writers;
+    private final Counter insertedCounter;
+    private final Counter rejectedCounter;
+
+    public PrescriptionImporter(MongoTemplate mongoTemplate,
+                                AppointmentRepository appointmentRepository,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${prescriptions.import.batch-size:1000}") int batchSize,
+                                @Value("${prescriptions.import.max-in-flight:4}") int maxInFlight,
+                                @Value("${prescriptions.import.max-reported-rejects:100}") int maxReportedRejects) {
+        this.mongoTemplate = mongoTemplate;
+        this.appointmentRepository = appointmentRepository;
+        this.validator = validator;
+        this.reader = objectMapper.readerFor(Prescription.class);
+        this.batchSize = batchSize;
+        this.maxReportedRejects = maxReportedRejects;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.writers = Executors.newFixedThreadPool(maxInFlight, namedThreads());
+        this.insertedCounter = Counter.builder("prescription.import.documents").tag("result", "inserted")
+                .description("Prescriptions written by the bulk import").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("prescription.import.documents").tag("result", "rejected")
+                .description("Import lines rejected (parse, validation, unknown appointment, duplicate)")
+                .register(meterRegistry);
+    }
+
+    // 1) importNdjson: reads the stream to the end; blank lines are skipped. Returns when every batch is written
+    public ImportReport importNdjson(InputStream input) throws IOException, InterruptedException {
+        Progress progress = new Progress(maxReportedRejects);
+        long started = System.nanoTime();
+
+        BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Batch batch = new Batch(batchSize);
+        long lineNumber = 0;
+        String line;
+        try {
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                progress.lines.incrementAndGet();
+
+                Prescription prescription = parse(line, lineNumber, progress);
+                if (prescription == null) continue;
+                batch.add(prescription, lineNumber);
+                if (batch.size() == batchSize) {
+                    submit(batch, progress);
+                    batch = new Batch(batchSize);
+                }
+            }
+            if (batch.size() > 0) {
+                submit(batch, progress);
+            }
+        } finally {
+            progress.pending.arriveAndAwaitAdvance(); // this import's batches still being written
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long inserted = progress.inserted.get();
+        log.info("Prescription import: {} lines, {} inserted, {} rejected in {}s",
+                progress.lines.get(), inserted, progress.rejected.get(), String.format("%.1f", seconds));
+        return new ImportReport(progress.lines.get(), inserted, progress.rejected.get(), seconds,
+                seconds > 0 ? inserted / seconds : inserted, progress.sampleRejects());
+    }
+
+    private Prescription parse(String line, long lineNumber, Progress progress) {
+        Prescription prescription;
+        try {
+            prescription = reader.readValue(line);
+        } catch (JsonProcessingException ex) {
+            reject(progress, lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+            return null;
+        }
+        if (prescription == null) {
+            reject(progress, lineNumber, "Expected a JSON object");
+            return null;
+        }
+        Set<ConstraintViolation<Prescription>> violations = validator.validate(prescription);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Prescription> first = violations.iterator().next();
+            reject(progress, lineNumber, first.getPropertyPath() + " " + first.getMessage());
+            return null;
+        }
+        prescription.setId(null);
+        return prescription;
+    }
+
+    // Blocks while max-in-flight batches are being written
+    private void submit(Batch batch, Progress progress) throws InterruptedException {
+        inFlight.acquire();
+        progress.pending.register();
+        try {
+            writers.execute(() -> {
+                try {
+                    write(batch, progress);
+                } finally {
+                    progress.pending.arriveAndDeregister();
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException ex) {
+            progress.pending.arriveAndDeregister();
+            inFlight.release();
+            throw ex;
+        }
+    }
+
+    private void write(Batch batch, Progress progress) {
+        Map<Long, AppointmentParticipants> participants = new HashMap<>();
+        try {
+            appointmentRepository.findParticipantsByIds(batch.appointmentIds())
+                    .forEach(p -> participants.put(p.appointmentId(), p));
+        } catch (RuntimeException ex) {
+            failed(progress, batch.lines, ex);
+            return;
+        }
+
+        List<Prescription> documents = new ArrayList<>(batch.size());
+        List<Long> documentLines = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Prescription prescription = batch.prescriptions.get(i);
+            AppointmentParticipants p = participants.get(prescription.getAppointmentId());
+            if (p == null) {
+                reject(progress, batch.lines.get(i), "Appointment " + prescription.getAppointmentId() + " not found");
+                continue;
+            }
+            prescription.setDoctorId(p.doctorId());
+            prescription.setPatientId(p.patientId());
+            documents.add(prescription);
+            documentLines.add(batch.lines.get(i));
+        }
+        if (documents.isEmpty()) return;
+
+        try {
+            int inserted = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class)
+                    .insert(documents)
+                    .execute()
+                    .getInsertedCount();
+            inserted(progress, inserted);
+        } catch (BulkOperationException ex) {
+            // unordered: everything except the failed items was written
+            inserted(progress, ex.getResult().getInsertedCount());
+            for (BulkWriteError error : ex.getErrors()) {
+                reject(progress, documentLines.get(error.getIndex()), error.getCode() == DUPLICATE_KEY
+                        ? "Prescription already exists for this appointment"
+                        : error.getMessage());
+            }
+        } catch (RuntimeException ex) {
+            failed(progress, documentLines, ex);
+        }
+    }
+
+    private void failed(Progress progress, List<Long> lines, RuntimeException ex) {
+        log.error("Prescription import: batch starting at line {} failed", lines.get(0), ex);
+        for (long line : lines) {
+            reject(progress, line, "Write failed: " + ex.getMessage());
+        }
+    }
+
+    private void inserted(Progress progress, int count) {
+        progress.inserted.addAndGet(count);
+        insertedCounter.increment(count);
+    }
+
+    private void reject(Progress progress, long line, String reason) {
+        progress.reject(line, reason);
+        rejectedCounter.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdown();
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "prescription-import-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Documents of one bulk write and the file lines they came from
+    private static final class Batch {
+        private final List<Prescription> prescriptions;
+        private final List<Long> lines;
+
+        private Batch(int capacity) {
+            this.prescriptions = new ArrayList<>(capacity);
+            this.lines = new ArrayList<>(capacity);
+        }
+
+        private void add(Prescription prescription, long line) {
+            prescriptions.add(prescription);
+            lines.add(line);
+        }
+
+        private int size() {
+            return prescriptions.size();
+        }
+
+        private List<Long> appointmentIds() {
+            return prescriptions.stream().map(Prescription::getAppointmentId).distinct().toList();
+        }
+    }
+
+    // Counters of one import, updated by the reader and the writer threads
+    private static final class Progress {
+        private final AtomicLong lines = new AtomicLong();
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final Phaser pending = new Phaser(1); // the reader plus one party per batch in flight
+        private final int maxSamples;
+        private final List<ImportReport.Reject> samples = new ArrayList<>();
+
+        private Progress(int maxSamples) {
+            this.maxSamples = maxSamples;
+        }
+
+        private void reject(long line, String reason) {
+            rejected.incrementAndGet();
+            synchronized (samples) {
+                if (samples.size() < maxSamples) {
+                    samples.add(new ImportReport.Reject(line, reason));
+                }
+            }
+        }
+
+        private List<ImportReport.Reject> sampleRejects() {
+            synchronized (samples) {
+                List<ImportReport.Reject> sorted = new ArrayList<>(samples);
+                sorted.sort((a, b) -> Long.compare(a.line(), b.line()));
+                return sorted;
+            }
+        }
+    }
+}
@@ -1,34 +1,148 @@
 package com.project.back_end.services;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Async;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.project.back_end.DTO.AppointmentParticipants;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+
+@org.springframework.stereotype.Service // 1) Spring-managed service for prescription logic
 public class PrescriptionService {
-    
- // 1. **Add @Service Annotation**:
-//    - The `@Service` annotation marks this class as a Spring service component, allowing Spring's container to manage it.
-//    - This class contains the business logic related to managing prescriptions in the healthcare system.
-//    - Instruction: Ensure the `@Service` annotation is applied to mark this class as a Spring-managed service.
-
-// 2. **Constructor Injection for Dependencies**:
-//    - The `PrescriptionService` class depends on the `PrescriptionRepository` to interact with the database.
-//    - It is injected through the constructor, ensuring proper dependency management and enabling testing.
-//    - Instruction: Constructor injection is a good practice, ensuring that all necessary dependencies are available at the time of service initialization.
-
-// 3. **savePrescription Method**:
-//    - This method saves a new prescription to the database.
-//    - Before saving, it checks if a prescription already exists for the same appointment (using the appointment ID).
-//    - If a prescription exists, it returns a `400 Bad Request` with a message stating the prescription already exists.
-//    - If no prescription exists, it saves the new prescription and returns a `201 Created` status with a success message.
-//    - Instruction: Handle errors by providing appropriate status codes and messages, ensuring that multiple prescriptions for the same appointment are not saved.
-
-// 4. **getPrescription Method**:
-//    - Retrieves a prescription associated with a specific appointment based on the `appointmentId`.
-//    - If a prescription is found, it returns it within a map wrapped in a `200 OK` status.
-//    - If there is an error while fetching the prescription, it logs the error and returns a `500 Internal Server Error` status with an error message.
-//    - Instruction: Ensure that this method handles edge cases, such as no prescriptions found for the given appointment, by returning meaningful responses.
-
-// 5. **Exception Handling and Error Responses**:
-//    - Both methods (`savePrescription` and `getPrescription`) contain try-catch blocks to handle exceptions that may occur during database interaction.
-//    - If an error occurs, the method logs the error and returns an HTTP `500 Internal Server Error` response with a corresponding error message.
-//    - Instruction: Ensure that all potential exceptions are handled properly, and meaningful responses are returned to the client.
 
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionService.class);
+
+    // Documents per round of backfillParticipants
+    private static final int BACKFILL_BATCH = 500;
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final MongoTemplate mongoTemplate;
+
+    // 2) Constructor injection
+    public PrescriptionService(PrescriptionRepository prescriptionRepository,
+                               AppointmentRepository appointmentRepository,
+                               MongoTemplate mongoTemplate) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // 3) savePrescription: one prescription per appointment; 400 if it already exists, 201 when saved.
+    // A single insert: the unique appointment_id index (MongoIndexes) rejects a second prescription,
+    // so concurrent saves for one appointment cannot both succeed. The appointment's doctor and patient
+    // ids are stored on the document (see PatientRecordService).
+    public ResponseEntity<Map<String, String>> savePrescription(Prescription prescription) {
+        Map<String, String> response = new HashMap<>();
+        try {
+            List<AppointmentParticipants> participants =
+                    appointmentRepository.findParticipantsByIds(List.of(prescription.getAppointmentId()));
+            if (participants.isEmpty()) {
+                response.put("message", "Appointment not found");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+            prescription.setId(null);
+            prescription.setDoctorId(participants.get(0).doctorId());
+            prescription.setPatientId(participants.get(0).patientId());
+            prescriptionRepository.insert(prescription);
+            response.put("message", "Prescription saved");
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (DuplicateKeyException ex) {
+            response.put("message", "Prescription already exists for this appointment");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        } catch (Exception ex) {
+            log.error("Error saving prescription for appointment {}", prescription.getAppointmentId(), ex);
+            response.put("message", "Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // 4) getPrescription: prescription(s) for an appointment; 404 if none, 500 on database errors
+    public ResponseEntity<Map<String, Object>> getPrescription(Long appointmentId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<Prescription> prescriptions = prescriptionRepository.findByAppointmentId(appointmentId);
+            if (prescriptions.isEmpty()) {
+                response.put("message", "No prescription found for this appointment");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+            response.put("prescription", prescriptions);
+            return ResponseEntity.ok(response);
+        } catch (Exception ex) {
+            log.error("Error fetching prescription for appointment {}", appointmentId, ex);
+            response.put("message", "Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // 4b) getPrescriptions: one prescription per appointment for many appointments, one Mongo round trip.
+    // Appointments without a prescription are absent from the map; 500 on database errors
+    public ResponseEntity<Map<String, Object>> getPrescriptions(Collection<Long> appointmentIds) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            Map<Long, Prescription> byAppointment = new LinkedHashMap<>();
+            for (Prescription prescription : prescriptionRepository.findByAppointmentIdIn(appointmentIds)) {
+                byAppointment.putIfAbsent(prescription.getAppointmentId(), prescription);
+            }
+            response.put("prescriptions", byAppointment);
+            return ResponseEntity.ok(response);
+        } catch (Exception ex) {
+            log.error("Error fetching prescriptions for {} appointments", appointmentIds.size(), ex);
+            response.put("message", "Internal server error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    // 5) backfillParticipants: prescriptions saved before doctorId/patientId existed get them from MySQL,
+    // one IN query and one unordered bulk write per batch. Orphans (appointment gone) are stored with
+    // null ids so they are not picked up again; once every document has the fields this is one empty query.
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillParticipants() {
+        long updated = 0;
+        try {
+            while (true) {
+                Query missing = new Query(Criteria.where("patientId").exists(false)).limit(BACKFILL_BATCH);
+                missing.fields().include("appointmentId");
+                List<Prescription> batch = mongoTemplate.find(missing, Prescription.class);
+                if (batch.isEmpty()) break;
+
+                Map<Long, AppointmentParticipants> byAppointment = new HashMap<>();
+                appointmentRepository.findParticipantsByIds(batch.stream().map(Prescription::getAppointmentId).toList())
+                        .forEach(p -> byAppointment.put(p.appointmentId(), p));
 
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class);
+                for (Prescription prescription : batch) {
+                    AppointmentParticipants p = byAppointment.get(prescription.getAppointmentId());
+                    bulk.updateOne(Query.query(Criteria.where("_id").is(prescription.getId())),
+                            new Update().set("doctorId", p != null ? p.doctorId() : null)
+                                    .set("patientId", p != null ? p.patientId() : null));
+                }
+                updated += bulk.execute().getModifiedCount();
+            }
+            if (updated > 0) {
+                log.info("Backfilled doctor and patient ids on {} prescriptions", updated);
+            }
+        } catch (RuntimeException ex) {
+            log.error("Prescription backfill stopped after {} documents; it resumes on the next start", updated, ex);
+        }
+    }
 }
@@ -0,0 +1,436 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.project.back_end.DTO.AppointmentFact;
+import com.project.back_end.repo.AppointmentRepository;
+
+/**
+ * Incrementally maintained counters behind the admin reports.
+ *
+ * Two rollups are kept per doctor:
+ * - day: number of appointments per date (daily report)
+ * - month: exact set of patients seen that month, as a compressed {@link RoaringBitmap} of
+ *   patient ids (a few bytes per patient, however large the ids get), plus the extra
+ *   appointments of the few patients seen more than once, so a cancellation only clears the
+ *   bit when the patient's last appointment of the month goes. Monthly sets merge with OR,
+ *   which gives the yearly distinct count without touching the appointments table.
+ *
+ * Only the last {@code reports.rollup.retention-months} months (and every future date) are
+ * kept; {@link #covers} tells the report service when to fall back to SQL for older periods.
+ * Entries leave the window at the next verification.
+ *
+ * Both follow every {@link AppointmentChangedEvent} (book, reschedule, cancel), so the
+ * month and year top-doctor reports are O(doctors) reads. Changes made on other nodes arrive
+ * as relayed events when an {@link InvalidationChannel} is registered; without one they only
+ * show up at the next verification.
+ *
+ * {@link #verify()} rebuilds both rollups from the raw table at startup and on
+ * {@code reports.rollup.verify-cron}, repairs any entry that drifted and counts it in
+ * {@code report.rollup.drift{rollup=day|month}}. Entries touched by events while the scan
+ * ran are re-read with a targeted query instead of being overwritten with the scan's view.
+ *
+ * All state is guarded by this object's monitor; every operation is a few map lookups.
+ */
+@Component
+public class ReportRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportRollups.class);
+
+    // Re-read rounds for entries that keep changing during a verification
+    private static final int MAX_REPAIR_ROUNDS = 5;
+
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final int retentionMonths;
+    private final Counter dayDrift;
+    private final Counter monthDrift;
+
+    // epochDay -> doctorId -> appointments that day
+    private final Map<Long, Map<Long, Integer>> days = new HashMap<>();
+    // month index (year * 12 + month - 1) -> doctorId -> patients seen that month
+    private final Map<Integer, Map<Long, MonthPatients>> months = new HashMap<>();
+
+    // Keys changed by events since the current verification scan started (null = no scan running)
+    private Set<DayKey> dirtyDays;
+    private Set<MonthKey> dirtyMonths;
+
+    private volatile boolean ready;
+    // Oldest month index held; moved forward by verify()
+    private volatile int firstMonth;
+
+    public ReportRollups(AppointmentRepository appointmentRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${reports.rollup.retention-months:24}") int retentionMonths) {
+        this.appointmentRepository = appointmentRepository;
+        this.retentionMonths = Math.max(1, retentionMonths);
+        this.firstMonth = windowStart();
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.dayDrift = Counter.builder("report.rollup.drift").tag("rollup", "day")
+                .description("Daily rollup entries repaired by verification").register(meterRegistry);
+        this.monthDrift = Counter.builder("report.rollup.drift").tag("rollup", "month")
+                .description("Monthly patient-set entries repaired by verification").register(meterRegistry);
+    }
+
+    /** @return true once the first full load has completed */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** @return true if the rollups are loaded and still hold this date */
+    public boolean covers(LocalDate date) {
+        return covers(YearMonth.from(date));
+    }
+
+    /** @return true if the rollups are loaded and still hold this month */
+    public boolean covers(YearMonth month) {
+        return ready && monthIndex(month) >= firstMonth;
+    }
+
+    /** @return true if the rollups are loaded and still hold the whole year */
+    public boolean covers(Year year) {
+        return covers(year.atMonth(1));
+    }
+
+    // 1) Incremental maintenance: undo the previous state of the appointment, apply the new one
+
+    @EventListener
+    public synchronized void onAppointmentChanged(AppointmentChangedEvent event) {
+        Long doctorId = event.getDoctorId();
+        Long patientId = event.getPatientId();
+        if (doctorId == null || patientId == null) return;
+
+        switch (event.getType()) {
+            case BOOKED -> apply(doctorId, patientId, event.getAppointmentTime(), +1);
+            case CANCELLED -> apply(doctorId, patientId, event.getPreviousAppointmentTime() != null
+                    ? event.getPreviousAppointmentTime() : event.getAppointmentTime(), -1);
+            case UPDATED -> {
+                // Status changes alone do not move any counter (the reports count every row, as the SQL does)
+                LocalDateTime before = event.getPreviousAppointmentTime();
+                LocalDateTime after = event.getAppointmentTime();
+                if (before != null && after != null && !before.equals(after)) {
+                    apply(doctorId, patientId, before, -1);
+                    apply(doctorId, patientId, after, +1);
+                }
+            }
+        }
+    }
+
+    // 2) Reads
+
+    /** Appointments per doctor on a date (doctorId -> count). */
+    public synchronized Map<Long, Integer> appointmentsOn(LocalDate date) {
+        return new HashMap<>(days.getOrDefault(date.toEpochDay(), Map.of()));
+    }
+
+    /** Distinct patients per doctor in a month (doctorId -> count). */
+    public synchronized Map<Long, Integer> distinctPatients(YearMonth month) {
+        Map<Long, Integer> result = new HashMap<>();
+        months.getOrDefault(monthIndex(month), Map.of())
+                .forEach((doctorId, patients) -> result.put(doctorId, patients.distinct()));
+        return result;
+    }
+
+    /** Distinct patients per doctor in a year, from the OR of the twelve monthly sets. */
+    public synchronized Map<Long, Integer> distinctPatients(Year year) {
+        Map<Long, RoaringBitmap> merged = new HashMap<>();
+        for (int m = 1; m <= 12; m++) {
+            months.getOrDefault(monthIndex(year.atMonth(m)), Map.of())
+                    .forEach((doctorId, patients) -> merged.computeIfAbsent(doctorId, id -> new RoaringBitmap())
+                            .or(patients.patients));
+        }
+        Map<Long, Integer> result = new HashMap<>();
+        merged.forEach((doctorId, bits) -> result.put(doctorId, bits.getCardinality()));
+        return result;
+    }
+
+    // 3) verify: rebuild from the appointments table and repair drifted entries (also the initial load).
+    // Runs @Async so startup does not wait for the full scan; reports use SQL until it completes
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${reports.rollup.verify-cron:0 30 3 * * *}")
+    public void verify() {
+        synchronized (this) {
+            if (dirtyDays != null) return; // a verification is already running
+            dirtyDays = new HashSet<>();
+            dirtyMonths = new HashSet<>();
+        }
+        try {
+            int windowStart = windowStart();
+            LocalDateTime since = monthOf(windowStart).atDay(1).atStartOfDay();
+            Map<Long, Map<Long, Integer>> freshDays = new HashMap<>();
+            Map<Integer, Map<Long, MonthPatients>> freshMonths = new HashMap<>();
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<AppointmentFact> facts = appointmentRepository.streamAppointmentFacts(since)) {
+                    facts.forEach(f -> {
+                        if (f.doctorId() == null || f.patientId() == null || f.appointmentTime() == null) return;
+                        freshDays.computeIfAbsent(f.appointmentTime().toLocalDate().toEpochDay(), d -> new HashMap<>())
+                                .merge(f.doctorId(), 1, Integer::sum);
+                        freshMonths.computeIfAbsent(monthIndex(YearMonth.from(f.appointmentTime())), m -> new HashMap<>())
+                                .computeIfAbsent(f.doctorId(), id -> new MonthPatients())
+                                .add(f.patientId(), 1);
+                    });
+                }
+            });
+
+            Set<DayKey> staleDays;
+            Set<MonthKey> staleMonths;
+            synchronized (this) {
+                boolean initial = !ready;
+                dropBefore(windowStart);
+                int repairedDays = installDays(freshDays, initial);
+                int repairedMonths = installMonths(freshMonths, initial);
+                if (!initial && (repairedDays > 0 || repairedMonths > 0)) {
+                    log.warn("Report rollups drifted from the appointments table: {} day and {} month entries repaired",
+                            repairedDays, repairedMonths);
+                }
+                staleDays = takeDirtyDays();
+                staleMonths = takeDirtyMonths();
+            }
+            repairDirty(staleDays, staleMonths);
+            ready = true;
+        } catch (RuntimeException ex) {
+            log.error("Report rollup verification failed", ex);
+        } finally {
+            synchronized (this) {
+                dirtyDays = null;
+                dirtyMonths = null;
+            }
+        }
+    }
+
+    // Replaces every live day entry that differs from the scan, except those changed by events meanwhile
+    private int installDays(Map<Long, Map<Long, Integer>> fresh, boolean initial) {
+        Set<DayKey> keys = new HashSet<>();
+        days.forEach((day, byDoctor) -> byDoctor.keySet().forEach(d -> keys.add(new DayKey(d, day))));
+        fresh.forEach((day, byDoctor) -> byDoctor.keySet().forEach(d -> keys.add(new DayKey(d, day))));
+
+        int repaired = 0;
+        for (DayKey key : keys) {
+            if (dirtyDays.contains(key)) continue;
+            Integer expected = fresh.getOrDefault(key.epochDay, Map.of()).get(key.doctorId);
+            Integer actual = days.getOrDefault(key.epochDay, Map.of()).get(key.doctorId);
+            if (!Objects.equals(expected, actual)) {
+                putDay(key, expected == null ? 0 : expected);
+                repaired++;
+            }
+        }
+        if (!initial) dayDrift.increment(repaired);
+        return repaired;
+    }
+
+    private int installMonths(Map<Integer, Map<Long, MonthPatients>> fresh, boolean initial) {
+        Set<MonthKey> keys = new HashSet<>();
+        months.forEach((month, byDoctor) -> byDoctor.keySet().forEach(d -> keys.add(new MonthKey(d, month))));
+        fresh.forEach((month, byDoctor) -> byDoctor.keySet().forEach(d -> keys.add(new MonthKey(d, month))));
+
+        int repaired = 0;
+        for (MonthKey key : keys) {
+            if (dirtyMonths.contains(key)) continue;
+            MonthPatients expected = fresh.getOrDefault(key.monthIndex, Map.of()).get(key.doctorId);
+            MonthPatients actual = months.getOrDefault(key.monthIndex, Map.of()).get(key.doctorId);
+            if (!Objects.equals(expected, actual)) {
+                putMonth(key, expected);
+                repaired++;
+            }
+        }
+        if (!initial) monthDrift.increment(repaired);
+        return repaired;
+    }
+
+    // Entries changed by events during the scan: re-read each with an indexed query after commit;
+    // if an event touches it again while reading, read it again on the next round
+    private void repairDirty(Set<DayKey> staleDays, Set<MonthKey> staleMonths) {
+        for (int round = 0; round < MAX_REPAIR_ROUNDS && !(staleDays.isEmpty() && staleMonths.isEmpty()); round++) {
+            Map<DayKey, Integer> dayCounts = new HashMap<>();
+            for (DayKey key : staleDays) {
+                LocalDate day = LocalDate.ofEpochDay(key.epochDay);
+                dayCounts.put(key, (int) readOnlyTx.execute(status -> appointmentRepository
+                        .countForDoctor(key.doctorId, day.atStartOfDay(), day.plusDays(1).atStartOfDay())).longValue());
+            }
+            Map<MonthKey, MonthPatients> monthSets = new HashMap<>();
+            for (MonthKey key : staleMonths) {
+                YearMonth month = monthOf(key.monthIndex);
+                MonthPatients patients = new MonthPatients();
+                readOnlyTx.execute(status -> appointmentRepository.findPatientIdsForDoctor(key.doctorId,
+                        month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay()))
+                        .forEach(patientId -> patients.add(patientId, 1));
+                monthSets.put(key, patients);
+            }
+
+            synchronized (this) {
+                Set<DayKey> touchedDays = takeDirtyDays();
+                Set<MonthKey> touchedMonths = takeDirtyMonths();
+                dayCounts.forEach((key, count) -> {
+                    if (!touchedDays.contains(key)) putDay(key, count);
+                });
+                monthSets.forEach((key, patients) -> {
+                    if (!touchedMonths.contains(key)) putMonth(key, patients);
+                });
+                staleDays = touchedDays;
+                staleMonths = touchedMonths;
+            }
+        }
+        if (!(staleDays.isEmpty() && staleMonths.isEmpty())) {
+            log.warn("Report rollups: {} day and {} month entries kept changing during verification; "
+                    + "they are checked again on the next run", staleDays.size(), staleMonths.size());
+        }
+    }
+
+    // Moves the window start forward and forgets everything before it (not drift: it just left the window)
+    private void dropBefore(int monthIndex) {
+        firstMonth = Math.max(firstMonth, monthIndex);
+        long firstDay = monthOf(firstMonth).atDay(1).toEpochDay();
+        days.keySet().removeIf(day -> day < firstDay);
+        months.keySet().removeIf(month -> month < firstMonth);
+        dirtyDays.removeIf(key -> key.epochDay < firstDay);
+        dirtyMonths.removeIf(key -> key.monthIndex < firstMonth);
+    }
+
+    private Set<DayKey> takeDirtyDays() {
+        Set<DayKey> taken = dirtyDays;
+        dirtyDays = new HashSet<>();
+        return taken;
+    }
+
+    private Set<MonthKey> takeDirtyMonths() {
+        Set<MonthKey> taken = dirtyMonths;
+        dirtyMonths = new HashSet<>();
+        return taken;
+    }
+
+    private void apply(Long doctorId, Long patientId, LocalDateTime time, int delta) {
+        if (time == null) return;
+        long epochDay = time.toLocalDate().toEpochDay();
+        int month = monthIndex(YearMonth.from(time));
+        if (month < firstMonth) return; // outside the window, reports for it run in SQL
+
+        Map<Long, Integer> byDoctor = days.computeIfAbsent(epochDay, d -> new HashMap<>());
+        int count = byDoctor.getOrDefault(doctorId, 0) + delta;
+        putDay(new DayKey(doctorId, epochDay), Math.max(0, count));
+
+        months.computeIfAbsent(month, m -> new HashMap<>())
+                .computeIfAbsent(doctorId, id -> new MonthPatients())
+                .add(patientId, delta);
+        MonthPatients patients = months.get(month).get(doctorId);
+        if (patients.isEmpty()) putMonth(new MonthKey(doctorId, month), null);
+
+        if (dirtyDays != null) {
+            dirtyDays.add(new DayKey(doctorId, epochDay));
+            dirtyMonths.add(new MonthKey(doctorId, month));
+        }
+    }
+
+    private void putDay(DayKey key, int count) {
+        if (count > 0) {
+            days.computeIfAbsent(key.epochDay, d -> new HashMap<>()).put(key.doctorId, count);
+            return;
+        }
+        Map<Long, Integer> byDoctor = days.get(key.epochDay);
+        if (byDoctor != null) {
+            byDoctor.remove(key.doctorId);
+            if (byDoctor.isEmpty()) days.remove(key.epochDay);
+        }
+    }
+
+    private void putMonth(MonthKey key, MonthPatients patients) {
+        if (patients != null && !patients.isEmpty()) {
+            months.computeIfAbsent(key.monthIndex, m -> new HashMap<>()).put(key.doctorId, patients);
+            return;
+        }
+        Map<Long, MonthPatients> byDoctor = months.get(key.monthIndex);
+        if (byDoctor != null) {
+            byDoctor.remove(key.doctorId);
+            if (byDoctor.isEmpty()) months.remove(key.monthIndex);
+        }
+    }
+
+    private int windowStart() {
+        return monthIndex(YearMonth.now().minusMonths(retentionMonths - 1));
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth monthOf(int monthIndex) {
+        return YearMonth.of(monthIndex / 12, monthIndex % 12 + 1);
+    }
+
+    private record DayKey(Long doctorId, long epochDay) {}
+
+    private record MonthKey(Long doctorId, int monthIndex) {}
+
+    /**
+     * Exact distinct-patient set for one doctor and month: a compressed bitmap of patient ids
+     * for cheap cardinality/merge, plus the appointments beyond the first for patients seen
+     * more than once that month (most are seen once, so this map stays small).
+     */
+    private static final class MonthPatients {
+        final RoaringBitmap patients = new RoaringBitmap();
+        final Map<Integer, Integer> repeats = new HashMap<>();
+
+        // delta is +1 (booked) or -1 (cancelled or moved away)
+        void add(Long patientId, int delta) {
+            int id = Math.toIntExact(patientId);
+            if (delta > 0) {
+                if (!patients.checkedAdd(id)) {
+                    repeats.merge(id, 1, Integer::sum);
+                }
+                return;
+            }
+            Integer extra = repeats.get(id);
+            if (extra == null) {
+                patients.remove(id);
+            } else if (extra > 1) {
+                repeats.put(id, extra - 1);
+            } else {
+                repeats.remove(id);
+            }
+        }
+
+        int distinct() {
+            return patients.getCardinality();
+        }
+
+        boolean isEmpty() {
+            return patients.isEmpty();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof MonthPatients other && patients.equals(other.patients) && repeats.equals(other.repeats);
+        }
+
+        @Override
+        public int hashCode() {
+            return patients.hashCode() * 31 + repeats.hashCode();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.project.back_end.services;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.project.back_end.DTO.DoctorAppointmentCount;
+import com.project.back_end.DTO.DoctorPatientCount;
+import com.project.back_end.repo.AppointmentRepository;
+
+// `Service` is the shared service in this package, hence the fully qualified stereotype
+@org.springframework.stereotype.Service
+public class ReportService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final ReportRollups reportRollups;
+    private final DoctorSearchIndex doctorSearchIndex;
+
+    public ReportService(AppointmentRepository appointmentRepository,
+                         ReportRollups reportRollups,
+                         DoctorSearchIndex doctorSearchIndex) {
+        this.appointmentRepository = appointmentRepository;
+        this.reportRollups = reportRollups;
+        this.doctorSearchIndex = doctorSearchIndex;
+    }
+
+    // Reports are answered from ReportRollups (O(doctors)); until its first load completes, and for periods
+    // older than its retention window, they run in SQL.
+
+    // 1) dailyAppointmentsByDoctor: GetDailyAppointmentReportByDoctor over [date, date + 1 day)
+    @Transactional(readOnly = true)
+    public List<DoctorAppointmentCount> dailyAppointmentsByDoctor(LocalDate date) {
+        if (!reportRollups.covers(date)) {
+            return appointmentRepository.countAppointmentsByDoctor(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        }
+        List<DoctorAppointmentCount> rows = new ArrayList<>();
+        reportRollups.appointmentsOn(date).forEach((doctorId, count) ->
+                rows.add(new DoctorAppointmentCount(doctorId, doctorName(doctorId), count)));
+        rows.sort(Comparator.comparingLong(DoctorAppointmentCount::appointments).reversed()
+                .thenComparing(DoctorAppointmentCount::doctorName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return rows;
+    }
+
+    // 2) topDoctorByMonth: GetDoctorWithMostPatientsByMonth over [first of month, first of next month)
+    @Transactional(readOnly = true)
+    public Optional<DoctorPatientCount> topDoctorByMonth(YearMonth month) {
+        if (!reportRollups.covers(month)) {
+            return topDoctor(month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        }
+        return topDoctor(reportRollups.distinctPatients(month));
+    }
+
+    // 3) topDoctorByYear: GetDoctorWithMostPatientsByYear over [1 Jan, 1 Jan next year)
+    @Transactional(readOnly = true)
+    public Optional<DoctorPatientCount> topDoctorByYear(Year year) {
+        if (!reportRollups.covers(year)) {
+            return topDoctor(year.atDay(1).atStartOfDay(), year.plusYears(1).atDay(1).atStartOfDay());
+        }
+        return topDoctor(reportRollups.distinctPatients(year));
+    }
+
+    private Optional<DoctorPatientCount> topDoctor(LocalDateTime start, LocalDateTime end) {
+        return appointmentRepository.countDistinctPatientsByDoctor(start, end, Limit.of(1)).stream().findFirst();
+    }
+
+    // Same ordering as the SQL: most patients first, then doctor name
+    private Optional<DoctorPatientCount> topDoctor(Map<Long, Integer> distinctByDoctor) {
+        return distinctByDoctor.entrySet().stream()
+                .map(e -> new DoctorPatientCount(e.getKey(), doctorName(e.getKey()), e.getValue()))
+                .min(Comparator.comparingLong(DoctorPatientCount::distinctPatients).reversed()
+                        .thenComparing(DoctorPatientCount::doctorName, Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+
+    private String doctorName(Long doctorId) {
+        return doctorSearchIndex.nameOf(doctorId).orElse(null);
+    }
+}
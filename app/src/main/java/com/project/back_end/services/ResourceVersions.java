@@ -0,0 +1,102 @@
+package com.project.back_end.services;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind the ETags of the doctor list and of a doctor's appointments on a day.
+ *
+ * Every committed change (the same events that keep {@link DoctorSearchIndex} and
+ * {@link SlotBitmapCache} current) takes a new number from one sequence, so a tag is
+ * computed and compared without reading any data. Tags carry this node's start time:
+ * after a restart, or on another node, an old tag simply no longer matches.
+ *
+ * A tag is only as current as the changes this node hears of: its own, and those of other
+ * nodes through the {@link InvalidationChannel} (doctor changes via {@link DoctorCacheInvalidator},
+ * appointment and patient changes via {@link ChangeRelay}), so a multi-node deployment needs a
+ * channel bean for these tags, as it does for its doctor caches.
+ *
+ * Doctor-days that were never changed share a floor version. Past days are dropped once
+ * there are too many; the floor then moves above every dropped number, so a version is
+ * never handed out twice.
+ */
+@Component
+public class ResourceVersions {
+
+    private static final int MAX_DAYS = 50_000;
+
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong doctors = new AtomicLong();
+    private final AtomicLong patients = new AtomicLong();
+    private final Map<Long, Long> doctorDays = new ConcurrentHashMap<>();
+    private volatile long dayFloor;
+
+    // 1) doctorsTag: strong ETag of the doctor list (any filter)
+    public String doctorsTag() {
+        return "\"d-" + boot + "-" + doctors.get() + "\"";
+    }
+
+    // 2) appointmentsTag: strong ETag of one doctor's appointments on one day (any patient-name filter).
+    // The doctor and patient versions are included because the rows carry the doctor's name and the
+    // patients' names and contact details
+    public String appointmentsTag(long doctorId, LocalDate date) {
+        long day = doctorDays.getOrDefault(key(doctorId, date), dayFloor);
+        return "\"a-" + boot + "-" + day + "." + doctors.get() + "." + patients.get() + "\"";
+    }
+
+    // 3) doctorChanged: a doctor was saved or removed, here or on another node
+    public void doctorChanged() {
+        doctors.set(sequence.incrementAndGet());
+    }
+
+    @EventListener
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        doctorChanged();
+    }
+
+    @EventListener
+    public void onPatientChanged(PatientChangedEvent event) {
+        patients.set(sequence.incrementAndGet());
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (event.getDoctorId() == null) return;
+        dayChanged(event.getDoctorId(), event.getAppointmentTime());
+        dayChanged(event.getDoctorId(), event.getPreviousAppointmentTime());
+    }
+
+    private void dayChanged(long doctorId, LocalDateTime time) {
+        if (time == null) return;
+        if (doctorDays.size() >= MAX_DAYS) {
+            prunePastDays();
+        }
+        doctorDays.put(key(doctorId, time.toLocalDate()), sequence.incrementAndGet());
+    }
+
+    // The floor is raised before anything is removed, so a reader never sees a dropped day at an older version
+    private synchronized void prunePastDays() {
+        long today = LocalDate.now().toEpochDay();
+        Map<Long, Long> past = new HashMap<>();
+        doctorDays.forEach((key, version) -> {
+            if ((key & 0xFFFFF) < today) past.put(key, version);
+        });
+        if (past.isEmpty()) return;
+        dayFloor = Math.max(dayFloor, Collections.max(past.values()));
+        past.forEach(doctorDays::remove);
+    }
+
+    // Same packing as SlotBitmapCache: doctor id above 20 bits of epoch day
+    private static long key(long doctorId, LocalDate date) {
+        return (doctorId << 20) | date.toEpochDay();
+    }
+}
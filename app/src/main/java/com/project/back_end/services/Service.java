@@ -1,33 +1,36 @@
 package com.project.back_end.services;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Service;
 
 // Validation
-import javax.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotNull;
 
 // Java
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
-import java.util.Objects;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-// Project-specific domain & repositories (adjust these to your actual packages)
+// Project-specific domain & repositories
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.DoctorListing;
+import com.project.back_end.DTO.PatientSummary;
 import com.project.back_end.models.Admin;
-import com.project.back_end.models.Doctor;
+import com.project.back_end.models.AvailabilitySlot;
 import com.project.back_end.models.Patient;
-import com.project.back_end.models.Appointment;
-import com.project.back_end.repositories.AdminRepository;
-import com.project.back_end.repositories.DoctorRepository;
-import com.project.back_end.repositories.PatientRepository;
-import com.project.back_end.repositories.AppointmentRepository;
-
-// Token and auxiliary services (adjust to your actual implementations)
-import com.project.back_end.security.TokenService;
-import com.project.back_end.services.PatientService;
+import com.project.back_end.repo.AdminRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.AppointmentRepository;
 
 // DTOs you might use (optional)
 class AuthResponse {
@@ -40,15 +43,23 @@ class ErrorResponse {
     public ErrorResponse(String error) { this.error = error; }
 }
 
-@Service // 1) Marks this class as a Spring service component
+// The class itself is named Service, hence the fully qualified stereotype
+@org.springframework.stereotype.Service // 1) Marks this class as a Spring service component
 public class Service {
 
+    // The one 401 message of every login, whether the account is unknown or the password is wrong
+    static final String INVALID_CREDENTIALS = "Invalid credentials";
+
     private final TokenService tokenService;
     private final AdminRepository adminRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
     private final PatientService patientService;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final SlotBitmapCache slotBitmapCache;
+    private final PasswordHashingPool passwordHashingPool;
+    private final LoginRateLimiter loginRateLimiter;
 
     // 2) Constructor injection promotes testability & immutability
     public Service(TokenService tokenService,
@@ -56,20 +67,27 @@ public class Service {
                    DoctorRepository doctorRepository,
                    PatientRepository patientRepository,
                    AppointmentRepository appointmentRepository,
-                   PatientService patientService) {
+                   PatientService patientService,
+                   DoctorSearchIndex doctorSearchIndex,
+                   SlotBitmapCache slotBitmapCache,
+                   PasswordHashingPool passwordHashingPool,
+                   LoginRateLimiter loginRateLimiter) {
         this.tokenService = tokenService;
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
         this.patientService = patientService;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.slotBitmapCache = slotBitmapCache;
+        this.passwordHashingPool = passwordHashingPool;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     // 3) validateToken: checks if a JWT token is valid for a specific user/role
     public ResponseEntity<?> validateToken(@NotNull String token) {
         try {
-            boolean valid = tokenService.validate(token);
-            if (!valid) {
+            if (tokenService.verify(token).isEmpty()) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(new ErrorResponse("Invalid or expired token"));
             }
@@ -80,95 +98,89 @@ public class Service {
         }
     }
 
+    // 3b) authenticate: one signature verification yielding subject, role and id, empty unless the role matches
+    public Optional<VerifiedPrincipal> authenticate(String token, String role) {
+        return tokenService.verify(token).filter(principal -> principal.hasRole(role));
+    }
+
     // 4) validateAdmin: login flow for admin; returns JWT when credentials are valid
-    public ResponseEntity<?> validateAdmin(@NotNull String username, @NotNull String passwordPlain) {
+    // The bcrypt check runs on the PasswordHashingPool, so the request thread is released while it runs.
+    // Attempts over the LoginRateLimiter budget (per username and per client IP) get 429 before any lookup.
+    public CompletableFuture<ResponseEntity<?>> validateAdmin(@NotNull String username, @NotNull String passwordPlain,
+                                                              String clientIp) {
+        if (!loginRateLimiter.tryAcquire(username, clientIp)) {
+            return CompletableFuture.completedFuture(tooManyAttempts());
+        }
         try {
             Optional<Admin> maybeAdmin = adminRepository.findByUsername(username);
             if (maybeAdmin.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new ErrorResponse("Admin not found"));
+                return unknownAccount(passwordPlain);
             }
 
             Admin admin = maybeAdmin.get();
-
-            // ⚠️ IMPORTANT: Use hashed password comparison in production
-            // e.g., passwordEncoder.matches(passwordPlain, admin.getPasswordHash())
-            boolean passwordMatches = Objects.equals(passwordPlain, admin.getPassword());
-            if (!passwordMatches) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new ErrorResponse("Invalid password"));
-            }
-
-            String token = tokenService.generateTokenForUser(username, "ADMIN");
-            return ResponseEntity.ok(new AuthResponse(token, "Login successful"));
+            return checkPassword(passwordPlain, admin.getPassword(),
+                    () -> tokenService.generateTokenForUser(username, "ADMIN", admin.getId()),
+                    rehashed -> {
+                        admin.setPassword(rehashed);
+                        adminRepository.save(admin);
+                    });
         } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse("Admin login error: " + ex.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Admin login error: " + ex.getMessage())));
         }
     }
 
     // 5) filterDoctor: flexible filtering by name, specialty, and available time slots
-    public List<Doctor> filterDoctor(String nameContains,
-                                     String specialtyEquals,
-                                     LocalTime desiredStart,
-                                     LocalTime desiredEnd) {
-        List<Doctor> all = doctorRepository.findAll(); // Or use query methods
-
-        return all.stream()
-                  .filter(d -> {
-                      boolean ok = true;
-                      if (nameContains != null && !nameContains.isBlank()) {
-                          String fullName = (d.getName() != null ? d.getName() : d.getFullName());
-                          ok &= (fullName != null) &&
-                                fullName.toLowerCase().contains(nameContains.toLowerCase());
-                      }
-                      if (specialtyEquals != null && !specialtyEquals.isBlank()) {
-                          ok &= specialtyEquals.equalsIgnoreCase(d.getSpecialty());
-                      }
-                      if (desiredStart != null && desiredEnd != null) {
-                          // Assuming availableTimes: list of slots with start/end (LocalTime)
-                          ok &= d.getAvailableTimes() != null &&
-                                d.getAvailableTimes().stream().anyMatch(slot ->
-                                    slot.getStartTime() != null &&
-                                    slot.getEndTime() != null &&
-                                    !slot.getEndTime().isBefore(desiredStart) &&
-                                    !slot.getStartTime().isAfter(desiredEnd)
-                                );
-                      }
-                      return ok;
-                  })
-                  .collect(Collectors.toList());
+    // Answered from the in-memory DoctorSearchIndex instead of findAll() + stream, as immutable DoctorListing rows
+    public List<DoctorListing> filterDoctor(String nameContains,
+                                            String specialtyEquals,
+                                            LocalTime desiredStart,
+                                            LocalTime desiredEnd) {
+        return doctorSearchIndex.search(nameContains, specialtyEquals, desiredStart, desiredEnd);
+    }
+
+    // 5b) filterDoctor for the dashboard filters: time is "AM", "PM" or a "HH:mm-HH:mm" window; matches under
+    // "doctors", 400 for an unreadable time. AM/PM are the same halves as DoctorService.filterDoctorByTime,
+    // so a slot ending at 12:00 is AM only (the PM window starts at 12:01)
+    public ResponseEntity<Map<String, Object>> filterDoctor(String name, String time, String specialty) {
+        LocalTime start = null;
+        LocalTime end = null;
+        String window = blankToNull(time);
+        if (window != null) {
+            switch (window.toUpperCase(Locale.ROOT)) {
+                case "AM" -> {
+                    start = LocalTime.MIDNIGHT;
+                    end = LocalTime.of(11, 59);
+                }
+                case "PM" -> {
+                    start = LocalTime.of(12, 1);
+                    end = LocalTime.of(23, 59);
+                }
+                default -> {
+                    AvailabilitySlot range = AvailabilitySlot.parse(window);
+                    if (range == null || range.getWeekday() != null) {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                .body(Map.of("message", "time must be AM, PM or HH:mm-HH:mm"));
+                    }
+                    start = range.getStartTime();
+                    end = range.getEndTime();
+                }
+            }
+        }
+        return ResponseEntity.ok(Map.of("doctors",
+                filterDoctor(blankToNull(name), blankToNull(specialty), start, end)));
     }
 
     // 6) validateAppointment: checks if a requested appointment time is valid for a doctor
-    // Returns: 1 = valid, 0 = invalid time, -1 = doctor does not exist
+    // Returns: 1 = valid, 0 = invalid time, -1 = doctor does not exist, -2 = slot already booked
+    // Availability and existing bookings come from the per-doctor slot bitmaps, so a warm check runs no query
     public int validateAppointment(long doctorId, LocalDate date, LocalTime requestedStart) {
-        Optional<Doctor> maybeDoctor = doctorRepository.findById(doctorId);
-        if (maybeDoctor.isEmpty()) return -1;
-
-        Doctor doctor = maybeDoctor.get();
-        // Verify doctor has an availability slot matching the requested date/time
-        boolean inAvailability = doctor.getAvailableTimes() != null &&
-                doctor.getAvailableTimes().stream().anyMatch(slot ->
-                        slot.getWeekday() != null &&
-                        slot.getWeekday().name().equalsIgnoreCase(date.getDayOfWeek().name()) &&
-                        slot.getStartTime() != null &&
-                        slot.getEndTime() != null &&
-                        !requestedStart.isBefore(slot.getStartTime()) &&
-                        !requestedStart.isAfter(slot.getEndTime())
-                );
-
-        if (!inAvailability) return 0;
-
-        // Prevent overlaps with existing appointments for the doctor at the requested time
-        List<Appointment> existing = appointmentRepository
-                .findByDoctorIdAndDate(doctorId, date); // Implement this repo method
-        boolean clash = existing.stream().anyMatch(appt ->
-                appt.getAppointmentTime() != null &&
-                appt.getAppointmentTime().toLocalTime().equals(requestedStart)
-        );
-
-        return clash ? 0 : 1;
+        return slotBitmapCache.check(doctorId, date, requestedStart);
+    }
+
+    // 6b) validateAppointment for a reschedule: the appointment currently at `currentTime` is not a clash
+    public int validateAppointment(long doctorId, LocalDate date, LocalTime requestedStart, LocalDateTime currentTime) {
+        return slotBitmapCache.check(doctorId, date, requestedStart, currentTime);
     }
 
     // 7) validatePatient: uniqueness by email or phone
@@ -180,61 +192,106 @@ public class Service {
         return !(emailExists || phoneExists);
     }
 
-    // 8) validatePatientLogin: returns JWT for valid patient login
-    public ResponseEntity<?> validatePatientLogin(@NotNull String email, @NotNull String passwordPlain) {
+    // 8) validatePatientLogin: returns JWT for valid patient login (hash check on the PasswordHashingPool)
+    // Rate limited per email and client IP like validateAdmin
+    public CompletableFuture<ResponseEntity<?>> validatePatientLogin(@NotNull String email, @NotNull String passwordPlain,
+                                                                     String clientIp) {
+        if (!loginRateLimiter.tryAcquire(email, clientIp)) {
+            return CompletableFuture.completedFuture(tooManyAttempts());
+        }
         try {
             Optional<Patient> maybePatient = patientRepository.findByEmail(email);
             if (maybePatient.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new ErrorResponse("Patient not found"));
+                return unknownAccount(passwordPlain);
             }
 
             Patient patient = maybePatient.get();
-            // ⚠️ Compare hashed passwords in production
-            if (!Objects.equals(passwordPlain, patient.getPassword())) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new ErrorResponse("Invalid password"));
-            }
-
-            String token = tokenService.generateTokenForUser(email, "PATIENT");
-            return ResponseEntity.ok(new AuthResponse(token, "Login successful"));
+            return checkPassword(passwordPlain, patient.getPassword(),
+                    () -> tokenService.generateTokenForUser(email, "PATIENT", patient.getId()),
+                    rehashed -> {
+                        patient.setPassword(rehashed);
+                        patientRepository.save(patient);
+                    });
         } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse("Patient login error: " + ex.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ErrorResponse("Patient login error: " + ex.getMessage())));
+        }
+    }
+
+    // 8b) getPatientDetails: the caller's profile as a PatientSummary projection (no password hash is read)
+    public Optional<PatientSummary> getPatientDetails(Long patientId) {
+        return patientRepository.findSummaryById(patientId);
+    }
+
+    // 9) filterPatient: the calling patient's appointments under "appointments", optionally filtered by
+    // condition ("past" / "future") and doctor name; 400 for an unknown condition (see PatientService)
+    public ResponseEntity<Map<String, Object>> filterPatient(Long patientId,
+                                                             String condition,
+                                                             String doctorNameContains) {
+        try {
+            List<AppointmentDTO> result = patientService.filterAppointments(patientId, condition, doctorNameContains);
+            return ResponseEntity.ok(Map.of("appointments", result));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", ex.getMessage()));
         }
     }
 
-    // 9) filterPatient: filters a patient's appointment history by condition and doctor name
-    // Token identifies patient; returns filtered appointments
-    public ResponseEntity<?> filterPatient(@NotNull String token,
-                                           String conditionContains,
-                                           String doctorNameContains) {
+    // checkPassword: verifies on the hashing pool; 429 when the pool is saturated, 401 on mismatch.
+    // A successful login with a stale hash (legacy plaintext or lower bcrypt cost) stores a fresh hash.
+    // stored == null is an unknown account (see unknownAccount).
+    // Package-private so DoctorService.validateDoctor shares the same flow.
+    CompletableFuture<ResponseEntity<?>> checkPassword(String passwordPlain,
+                                                               String stored,
+                                                               Supplier<String> issueToken,
+                                                               Consumer<String> saveRehashed) {
+        CompletableFuture<Boolean> matches;
         try {
-            if (!tokenService.validate(token)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new ErrorResponse("Invalid or expired token"));
-                       }
-            String patientEmail = tokenService.extractSubject(token);
+            matches = stored == null
+                    ? passwordHashingPool.verifyUnknown(passwordPlain)
+                    : passwordHashingPool.verify(passwordPlain, stored);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new ErrorResponse("Too many logins in progress, please retry")));
+        }
 
-            Optional<Patient> maybePatient = patientRepository.findByEmail(patientEmail);
-            if (maybePatient.isEmpty()) {
+        return matches.<ResponseEntity<?>>thenApply(ok -> {
+            if (!ok) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new ErrorResponse("Patient not found"));
+                        .body(new ErrorResponse(INVALID_CREDENTIALS));
             }
-            Patient patient = maybePatient.get();
-
-            // Delegate to PatientService (implement these methods)
-            List<Appointment> result;
-            if ((conditionContains == null || conditionContains.isBlank()) &&
-                (doctorNameContains == null || doctorNameContains.isBlank())) {
-                result = patientService.getAllAppointmentsForPatient(patient.getId());
-            } else {
-                result = patientService.filterAppointmentsForPatient(
-                        patient.getId(), conditionContains, doctorNameContains);
+            if (passwordHashingPool.needsRehash(stored)) {
+                rehash(passwordPlain, saveRehashed);
             }
-            return ResponseEntity.ok(result);
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse("Filtering error: " + ex.getMessage()));
+            return ResponseEntity.ok(new AuthResponse(issueToken.get(), "Login successful"));
+        }).exceptionally(ex -> ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Login error: " + ex.getMessage())));
+    }
+
+    // unknownAccount: no such user. Costs the same hash check and gets the same 401 as a wrong password,
+    // so neither the answer nor its timing reveals which accounts exist
+    CompletableFuture<ResponseEntity<?>> unknownAccount(String passwordPlain) {
+        return checkPassword(passwordPlain, null, null, null);
+    }
+
+    // tooManyAttempts: 429 for logins rejected by the LoginRateLimiter
+    ResponseEntity<?> tooManyAttempts() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginRateLimiter.retryAfterSeconds()))
+                .body(new ErrorResponse("Too many login attempts, please try again later"));
+    }
+
+    // blankToNull: optional request filters; blank and the literal "null" (the pages' placeholder for an unset
+    // filter) mean no filter. Package-private so every service reads its filter parameters the same way
+    static String blankToNull(String value) {
+        return (value == null || value.isBlank() || "null".equals(value)) ? null : value.trim();
+    }
+
+    private void rehash(String passwordPlain, Consumer<String> saveRehashed) {
+        try {
+            passwordHashingPool.hash(passwordPlain).thenAccept(saveRehashed);
+        } catch (RejectedExecutionException ignored) {
+            // pool is busy; the hash is upgraded on a later login
         }
-    }}
+    }
+}
@@ -0,0 +1,322 @@
+package com.project.back_end.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.project.back_end.models.AvailabilitySlot;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+/**
+ * Per-doctor slot bitmaps used for availability checks and clash detection.
+ *
+ * A day is cut into 96 slots of 15 minutes, stored as one bit per slot in a
+ * {@code long[2]}. Each doctor has one availability mask per weekday (built
+ * from the doctor's packed {@code AvailabilitySlot}s) and one booked mask per date (built from that
+ * day's appointments). Once both are cached, checking a slot or listing free
+ * time is a handful of bitwise operations with no query.
+ *
+ * Booked masks are invalidated on every {@link AppointmentChangedEvent} and
+ * bounded in number (least recently used go first); availability masks are
+ * evicted by {@link DoctorChangeListener}.
+ */
+@Component
+public class SlotBitmapCache {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int WORDS = (SLOTS_PER_DAY + 63) / 64;
+
+    // Appointments last one hour (see Appointment#getEndTime)
+    public static final int APPOINTMENT_MINUTES = 60;
+
+    // Result codes shared with Service.validateAppointment
+    public static final int VALID = 1;
+    public static final int UNAVAILABLE = 0;
+    public static final int NO_DOCTOR = -1;
+    public static final int BOOKED = -2; // fits availability but overlaps an existing appointment
+
+    private static final long[] MISSING_DOCTOR = new long[0];
+
+    // Most doctor-days with a cached booked mask; beyond it the least recently used are evicted
+    private static final int MAX_BOOKED_DAYS = 50_000;
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final TransactionTemplate readOnlyTx;
+
+    private final Map<Long, CompletableFuture<long[]>> availability = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<long[]>> booked = Caffeine.newBuilder()
+            .maximumSize(MAX_BOOKED_DAYS)
+            .<Long, CompletableFuture<long[]>>build()
+            .asMap();
+
+    public SlotBitmapCache(DoctorRepository doctorRepository,
+                           AppointmentRepository appointmentRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    // 1) check: 1 = the whole appointment fits in availability and clashes with nothing,
+    // 0 = outside availability, -1 = no such doctor, -2 = overlaps an existing appointment
+    public int check(long doctorId, LocalDate date, LocalTime start) {
+        return check(doctorId, date, start, () -> booked(doctorId, date));
+    }
+
+    // 1b) check for a reschedule: same as check(), but the appointment currently at `excluding` (the one being
+    // moved) does not count as a clash, so it can move into time it already covers (09:00 -> 09:30)
+    public int check(long doctorId, LocalDate date, LocalTime start, LocalDateTime excluding) {
+        if (excluding == null || !excluding.toLocalDate().equals(date)) {
+            return check(doctorId, date, start);
+        }
+        return check(doctorId, date, start, () -> bookedExcluding(doctorId, date, excluding.toLocalTime()));
+    }
+
+    private int check(long doctorId, LocalDate date, LocalTime start, Supplier<long[]> taken) {
+        long[] weekly = availability(doctorId);
+        if (weekly == MISSING_DOCTOR) return NO_DOCTOR;
+
+        int startMinute = start.getHour() * 60 + start.getMinute();
+        int endMinute = startMinute + APPOINTMENT_MINUTES;
+        if (endMinute > 24 * 60) return UNAVAILABLE;
+
+        int from = startMinute / SLOT_MINUTES;
+        int to = (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        if (!allSet(weekly, dayOffset(date.getDayOfWeek()), from, to)) return UNAVAILABLE;
+        return anySet(taken.get(), 0, from, to) ? BOOKED : VALID;
+    }
+
+    // 2) freeSlots: availability minus bookings for one date, as "HH:mm-HH:mm" windows
+    public List<String> freeSlots(long doctorId, LocalDate date) {
+        List<String> free = new ArrayList<>();
+        long[] weekly = availability(doctorId);
+        if (weekly == MISSING_DOCTOR) return free;
+
+        int offset = dayOffset(date.getDayOfWeek());
+        long[] taken = booked(doctorId, date);
+        int runStart = -1;
+        for (int slot = 0; slot <= SLOTS_PER_DAY; slot++) {
+            boolean open = slot < SLOTS_PER_DAY && isSet(weekly, offset, slot) && !isSet(taken, 0, slot);
+            if (open && runStart < 0) {
+                runStart = slot;
+            } else if (!open && runStart >= 0) {
+                free.add(format(runStart) + "-" + format(slot));
+                runStart = -1;
+            }
+        }
+        return free;
+    }
+
+    // 3) invalidate: forget the booked mask of one doctor-day
+    public void invalidate(Long doctorId, LocalDate date) {
+        if (doctorId == null || date == null) return;
+        booked.remove(key(doctorId, date));
+    }
+
+    // 4) evictDoctor: forget a doctor's availability (profile saved or deleted)
+    public void evictDoctor(Long doctorId) {
+        if (doctorId == null) return;
+        availability.remove(doctorId);
+    }
+
+    // 5) plan: a private, mutable copy of one doctor-day for validating many bookings with one load.
+    // Each successful reserve() marks its slots, so later items of the same batch see them as taken.
+    public DayPlan plan(long doctorId, LocalDate date) {
+        long[] weekly = availability(doctorId);
+        if (weekly == MISSING_DOCTOR) return new DayPlan(null, 0, null);
+        return new DayPlan(weekly, dayOffset(date.getDayOfWeek()), booked(doctorId, date).clone());
+    }
+
+    @EventListener
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        invalidate(event.getDoctorId(), dateOf(event.getAppointmentTime()));
+        invalidate(event.getDoctorId(), dateOf(event.getPreviousAppointmentTime()));
+    }
+
+    private long[] availability(long doctorId) {
+        return load(availability, doctorId, () -> readOnlyTx.execute(status ->
+                doctorRepository.findById(doctorId)
+                        .map(SlotBitmapCache::weeklyMask)
+                        .orElse(MISSING_DOCTOR)));
+    }
+
+    private long[] booked(long doctorId, LocalDate date) {
+        return load(booked, key(doctorId, date), () -> bookedMask(doctorId, date, null));
+    }
+
+    // The booked mask without one appointment. An appointment starting on a slot boundary owns its slots
+    // outright (any other appointment touching them would overlap it), so they are cleared from a copy of the
+    // cached mask; an unaligned one may share its first and last slot with a neighbour, so the day is rebuilt.
+    private long[] bookedExcluding(long doctorId, LocalDate date, LocalTime excluded) {
+        int startMinute = excluded.getHour() * 60 + excluded.getMinute();
+        if (startMinute % SLOT_MINUTES != 0) {
+            return bookedMask(doctorId, date, excluded);
+        }
+        long[] mask = booked(doctorId, date).clone();
+        clearRange(mask, 0, startMinute / SLOT_MINUTES,
+                Math.min(SLOTS_PER_DAY, (startMinute + APPOINTMENT_MINUTES) / SLOT_MINUTES));
+        return mask;
+    }
+
+    // One bit per slot covered by the day's appointments, skipping one appointment at `excluded` (null = none)
+    private long[] bookedMask(long doctorId, LocalDate date, LocalTime excluded) {
+        long[] mask = new long[WORDS];
+        boolean skipped = false;
+        for (LocalDateTime time : appointmentRepository.findAppointmentTimes(doctorId,
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+            if (time == null) continue;
+            if (!skipped && time.toLocalTime().equals(excluded)) {
+                skipped = true;
+                continue;
+            }
+            int startMinute = time.getHour() * 60 + time.getMinute();
+            setRange(mask, 0, startMinute / SLOT_MINUTES,
+                    Math.min(SLOTS_PER_DAY, (startMinute + APPOINTMENT_MINUTES + SLOT_MINUTES - 1) / SLOT_MINUTES));
+        }
+        return mask;
+    }
+
+    // Loads run outside the map's bin lock: a query inside computeIfAbsent would pin a virtual thread
+    // to its carrier (and stall every key in the same bin). Concurrent callers share the in-flight load;
+    // an invalidate() during the load removes it, so later callers reload instead of seeing stale bits.
+    private static long[] load(Map<Long, CompletableFuture<long[]>> cache, long key, Supplier<long[]> loader) {
+        CompletableFuture<long[]> cached = cache.get(key);
+        if (cached == null) {
+            CompletableFuture<long[]> mine = new CompletableFuture<>();
+            cached = cache.putIfAbsent(key, mine);
+            if (cached == null) {
+                try {
+                    mine.complete(loader.get());
+                } catch (RuntimeException ex) {
+                    cache.remove(key, mine);
+                    mine.completeExceptionally(ex);
+                    throw ex;
+                }
+                return mine.join();
+            }
+        }
+        return cached.join();
+    }
+
+    // Slots without a weekday apply to all seven days
+    private static long[] weeklyMask(Doctor doctor) {
+        long[] mask = new long[7 * WORDS];
+        for (int slot : doctor.getPackedSlots()) {
+            int from = AvailabilitySlot.startOf(slot) / SLOT_MINUTES;
+            int to = Math.min(SLOTS_PER_DAY, AvailabilitySlot.endOf(slot) / SLOT_MINUTES);
+            for (DayOfWeek day : DayOfWeek.values()) {
+                if (AvailabilitySlot.appliesTo(slot, day)) {
+                    setRange(mask, dayOffset(day), from, to);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /** Availability and bookings of one doctor-day, see {@link #plan}. Not thread-safe. */
+    public static final class DayPlan {
+        private final long[] weekly;
+        private final int offset;
+        private final long[] taken;
+
+        private DayPlan(long[] weekly, int offset, long[] taken) {
+            this.weekly = weekly;
+            this.offset = offset;
+            this.taken = taken;
+        }
+
+        // Same result codes as check(); VALID also reserves the slots in this plan
+        public int reserve(LocalTime start) {
+            if (weekly == null) return NO_DOCTOR;
+
+            int startMinute = start.getHour() * 60 + start.getMinute();
+            int endMinute = startMinute + APPOINTMENT_MINUTES;
+            if (endMinute > 24 * 60) return UNAVAILABLE;
+
+            int from = startMinute / SLOT_MINUTES;
+            int to = (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES;
+            if (!allSet(weekly, offset, from, to)) return UNAVAILABLE;
+            if (anySet(taken, 0, from, to)) return BOOKED;
+            setRange(taken, 0, from, to);
+            return VALID;
+        }
+    }
+
+    private static long key(long doctorId, LocalDate date) {
+        return (doctorId << 20) | date.toEpochDay();
+    }
+
+    private static int dayOffset(DayOfWeek day) {
+        return (day.getValue() - 1) * WORDS;
+    }
+
+    private static LocalDate dateOf(LocalDateTime time) {
+        return time != null ? time.toLocalDate() : null;
+    }
+
+    private static String format(int slot) {
+        int minutes = slot * SLOT_MINUTES;
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    // --- bit helpers over [from, to) slot ranges starting at word offset ---
+
+    static boolean isSet(long[] bits, int offset, int slot) {
+        return (bits[offset + (slot >>> 6)] & (1L << slot)) != 0;
+    }
+
+    static void setRange(long[] bits, int offset, int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            bits[offset + (slot >>> 6)] |= 1L << slot;
+        }
+    }
+
+    static void clearRange(long[] bits, int offset, int from, int to) {
+        for (int slot = from; slot < to; slot++) {
+            bits[offset + (slot >>> 6)] &= ~(1L << slot);
+        }
+    }
+
+    static boolean allSet(long[] bits, int offset, int from, int to) {
+        for (int word = from >>> 6; from < to; word++) {
+            long want = rangeMask(from, Math.min(to, (word + 1) << 6));
+            if ((bits[offset + word] & want) != want) return false;
+            from = (word + 1) << 6;
+        }
+        return true;
+    }
+
+    static boolean anySet(long[] bits, int offset, int from, int to) {
+        for (int word = from >>> 6; from < to; word++) {
+            long want = rangeMask(from, Math.min(to, (word + 1) << 6));
+            if ((bits[offset + word] & want) != 0) return true;
+            from = (word + 1) << 6;
+        }
+        return false;
+    }
+
+    // Bits [from, to) of the 64-bit word containing both (to may be the next word boundary)
+    private static long rangeMask(int from, int to) {
+        long high = (to & 63) == 0 ? -1L : (1L << to) - 1;
+        return high & (-1L << from);
+    }
+}
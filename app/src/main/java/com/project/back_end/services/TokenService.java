@@ -1,8 +1,14 @@
 package com.project.back_end.services;
 
+import java.util.Optional;
+
 // TokenService.java
 public interface TokenService {
+    // Parses and verifies the token once; subject, role, id and expiry come back together
+    Optional<VerifiedPrincipal> verify(String token);
+
     boolean validate(String token);
     String generateTokenForUser(String subject, String role);
+    String generateTokenForUser(String subject, String role, Long principalId);
     String extractSubject(String token);
 }
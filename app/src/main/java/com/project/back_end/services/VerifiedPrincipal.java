@@ -0,0 +1,61 @@
+package com.project.back_end.services;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Immutable result of verifying a JWT: who the token belongs to, in which role,
+ * their database id (when the token carries one) and when the token expires.
+ */
+public final class VerifiedPrincipal {
+
+    private final String subject;
+    private final String role;
+    private final Long id;
+    private final Instant expiresAt;
+
+    public VerifiedPrincipal(String subject, String role, Long id, Instant expiresAt) {
+        this.subject = subject;
+        this.role = role;
+        this.id = id;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() { return subject; }
+    public String getRole() { return role; }
+    public Long getId() { return id; }
+    public Instant getExpiresAt() { return expiresAt; }
+
+    /** @return true if the token carries the given role (case-insensitive, e.g. "doctor" vs "DOCTOR") */
+    public boolean hasRole(String expected) {
+        return role != null && role.equalsIgnoreCase(expected);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof VerifiedPrincipal)) return false;
+        VerifiedPrincipal that = (VerifiedPrincipal) o;
+        return Objects.equals(subject, that.subject) && Objects.equals(role, that.role)
+                && Objects.equals(id, that.id) && Objects.equals(expiresAt, that.expiresAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(subject, role, id, expiresAt);
+    }
+
+    @Override
+    public String toString() {
+        return "VerifiedPrincipal{" +
+                "subject='" + subject + '\'' +
+                ", role='" + role + '\'' +
+                ", id=" + id +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of already-verified JWTs.
+ *
+ * Keyed by the SHA-256 digest of the token (raw tokens are never kept), so a
+ * repeat request skips base64 decoding, JSON parsing and the HMAC check and gets
+ * subject, role and id from one lookup. Entries are dropped once their
+ * {@code exp} has passed, and the cache never holds more than
+ * {@code jwt.cache.max-entries} tokens.
+ *
+ * Publishes {@code jwt.cache.requests{result=hit|miss}}, {@code jwt.cache.evictions}
+ * and the {@code jwt.cache.size} gauge.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<String, VerifiedPrincipal> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                              MeterRegistry meterRegistry) {
+        this(maxEntries, meterRegistry, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(int maxEntries, MeterRegistry meterRegistry, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.hits = Counter.builder("jwt.cache.requests").tag("result", "hit")
+                .description("Token lookups answered from the verified-token cache").register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests").tag("result", "miss")
+                .description("Token lookups that required signature verification").register(meterRegistry);
+        this.evictions = Counter.builder("jwt.cache.evictions")
+                .description("Entries removed because they expired or the cache was full").register(meterRegistry);
+        meterRegistry.gaugeMapSize("jwt.cache.size", Tags.empty(), entries);
+    }
+
+    // 1) get: cached principal for a token digest, or null if unknown or expired
+    public VerifiedPrincipal get(String digest) {
+        VerifiedPrincipal principal = entries.get(digest);
+        if (principal == null) {
+            misses.increment();
+            return null;
+        }
+        if (principal.isExpired(clock.instant())) {
+            if (entries.remove(digest, principal)) evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return principal;
+    }
+
+    // 2) put: remember a freshly verified token until its exp
+    public void put(String digest, VerifiedPrincipal principal) {
+        if (principal.isExpired(clock.instant())) return;
+        if (entries.size() >= maxEntries) {
+            makeRoom();
+        }
+        entries.put(digest, principal);
+    }
+
+    public void invalidate(String digest) {
+        if (entries.remove(digest) != null) evictions.increment();
+    }
+
+    public int size() { return entries.size(); }
+    public double hitCount() { return hits.count(); }
+    public double missCount() { return misses.count(); }
+
+    /** SHA-256 of the compact token, base64url encoded; the key used by this cache. */
+    public static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    // Drop expired entries first; if that is not enough, shed a tenth of the cache
+    private void makeRoom() {
+        Instant now = clock.instant();
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().isExpired(now);
+            if (expired) evictions.increment();
+            return expired;
+        });
+        if (entries.size() < maxEntries) return;
+
+        int toShed = Math.max(1, maxEntries / 10);
+        Iterator<String> it = entries.keySet().iterator();
+        while (toShed-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+}
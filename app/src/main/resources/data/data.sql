@@ -85,6 +85,10 @@ INSERT INTO appointments (doctor_id, patient_id, appointment_time, status) VALUE
 (1, 2, '2024-12-11 10:00:00', 'Completed');
 
 -- 3) Stored Procedures --------------------------------------------------------
+-- Every report filters with a half-open range (time >= start AND time < end) on the bare
+-- appointment_time column, never DATE()/YEAR()/MONTH() of it, so MySQL can range-scan
+-- idx_appt_time instead of evaluating a function on every row.
+-- See src/test/resources/benchmark/report_range_benchmark.sql for the EXPLAIN comparison.
 DELIMITER $$
 
 -- A) Daily Appointments Report, grouped by doctor
@@ -98,7 +102,8 @@ BEGIN
       COUNT(*) AS appointments_count
   FROM appointments a
   JOIN doctors d ON d.id = a.doctor_id
-  WHERE DATE(a.appointment_time) = p_date
+  WHERE a.appointment_time >= p_date
+    AND a.appointment_time <  p_date + INTERVAL 1 DAY
   GROUP BY d.id, d.full_name
   ORDER BY appointments_count DESC, doctor_name ASC;
 END $$
@@ -107,30 +112,33 @@ END $$
 DROP PROCEDURE IF EXISTS GetDoctorWithMostPatientsByMonth $$
 CREATE PROCEDURE GetDoctorWithMostPatientsByMonth(IN p_year INT, IN p_month INT)
 BEGIN
+  DECLARE v_start DATETIME DEFAULT MAKEDATE(p_year, 1) + INTERVAL (p_month - 1) MONTH;
   SELECT
       d.id AS doctor_id,
       d.full_name AS doctor_name,
       COUNT(DISTINCT a.patient_id) AS distinct_patients
   FROM appointments a
   JOIN doctors d ON d.id = a.doctor_id
-  WHERE YEAR(a.appointment_time) = p_year
-    AND MONTH(a.appointment_time) = p_month
+  WHERE a.appointment_time >= v_start
+    AND a.appointment_time <  v_start + INTERVAL 1 MONTH
   GROUP BY d.id, d.full_name
   ORDER BY distinct_patients DESC, doctor_name ASC
   LIMIT 1;
 END $$
 
----- C) Doctor with most distinct patients in a given year
+-- C) Doctor with most distinct patients in a given year
 DROP PROCEDURE IF EXISTS GetDoctorWithMostPatientsByYear $$
 CREATE PROCEDURE GetDoctorWithMostPatientsByYear(IN p_year INT)
 BEGIN
+  DECLARE v_start DATETIME DEFAULT MAKEDATE(p_year, 1);
   SELECT
       d.id AS doctor_id,
       d.full_name AS doctor_name,
       COUNT(DISTINCT a.patient_id) AS distinct_patients
   FROM appointments a
   JOIN doctors d ON d.id = a.doctor_id
-  WHERE YEAR(a.appointment_time) = p_year
+  WHERE a.appointment_time >= v_start
+    AND a.appointment_time <  v_start + INTERVAL 1 YEAR
   GROUP BY d.id, d.full_name
   ORDER BY distinct_patients DESC, doctor_name ASC
   LIMIT 1;
@@ -146,3 +154,4 @@ CALL GetDailyAppointmentReportByDoctor('2025-12-15');
 CALL GetDoctorWithMostPatientsByMonth(2025, 12);
 
 -- Run the yearly top-doctor report
+CALL GetDoctorWithMostPatientsByYear(2025);
@@ -63,7 +63,7 @@ function bindControls() {
       await doctorService.createDoctor(payload);
       closeModal('#addDoctorModal');
       form.reset();
-      await loadDoctors(true);
+      await loadDoctors();
       applyFiltersAndRender();
     } catch (err) {
       console.error(err);
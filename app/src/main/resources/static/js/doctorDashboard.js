@@ -6,10 +6,12 @@ import { doctorService } from '/services/doctorService.js';
 import { patientService } from '/services/patientService.js';
 import { debounce, formatDateTime } from '/utils/common.js';
 
+const PAGE_SIZE = 50;
+
 const state = {
   doctorId: null,
   appointments: [],
-  filtered: [],
+  nextCursor: null,
   filters: {
     searchPatient: '',
     date: ''
@@ -23,8 +25,15 @@ async function init() {
 
   // derive doctorId from token / profile
   state.doctorId = await doctorService.getMyProfileId();
-  await loadAppointments();
-  applyFiltersAndRender();
+  // the list is loaded on the stream's "ready" event and kept current from its deltas instead of polling
+  doctorService.watchAppointments({
+    ready: () => loadAppointments(),
+    resync: () => loadAppointments(),
+    booked: (d) => upsertAppointment(d.appointment),
+    updated: (d) => upsertAppointment(d.appointment),
+    status: (d) => upsertAppointment(d.appointment),
+    cancelled: (d) => removeAppointment(d.appointmentId)
+  });
 }
 
 function bindControls() {
@@ -32,36 +41,66 @@ function bindControls() {
   const dateEl = document.getElementById('dateFilter');
 
   searchEl.addEventListener('input', debounce((e) => {
-    state.filters.searchPatient = e.target.value.trim().toLowerCase();
-    applyFiltersAndRender();
+    state.filters.searchPatient = e.target.value.trim();
+    loadAppointments();
   }, 200));
 
   dateEl.addEventListener('change', (e) => {
     state.filters.date = e.target.value; // "YYYY-MM-DD"
-    applyFiltersAndRender();
+    loadAppointments();
   });
 }
 
-async function loadAppointments(force = false) {
-  state.appointments = await doctorService.getAppointments(state.doctorId, { force });
-}
-
-function applyFiltersAndRender() {
+// Filters run on the server; the list grows one keyset page at a time ("Load more")
+async function loadAppointments(append = false) {
   const { searchPatient, date } = state.filters;
-  let list = [...state.appointments];
+  const page = await doctorService.getAppointments(state.doctorId, {
+    from: date || undefined,
+    to: date || undefined,
+    patientName: searchPatient || undefined,
+    cursor: append ? state.nextCursor : undefined,
+    size: PAGE_SIZE
+  });
+  state.appointments = append ? state.appointments.concat(page.appointments) : page.appointments;
+  state.nextCursor = page.nextCursor;
+  renderAppointments(state.appointments);
+}
 
-  if (searchPatient) {
-    list = list.filter(a => (a.patient?.fullName || a.patient?.name || '')
-      .toLowerCase().includes(searchPatient));
-  }
-  if (date) {
-    list = list.filter(a => (a.appointmentTime || '').slice(0, 10) === date);
+// Applies a pushed row: replaced in place, inserted in (time, id) order, or dropped when it no longer
+// matches the filters. Rows past the last loaded page are left for "Load more" to fetch.
+function upsertAppointment(row) {
+  const list = state.appointments.filter(a => a.id !== row.id);
+  const last = list[list.length - 1];
+  const beyondPage = state.nextCursor && last && compareRows(row, last) > 0;
+  if (matchesFilters(row) && !beyondPage) {
+    const at = list.findIndex(a => compareRows(row, a) < 0);
+    list.splice(at < 0 ? list.length : at, 0, row);
   }
+  state.appointments = list;
+  renderAppointments(list);
+}
 
-  state.filtered = list;
+function removeAppointment(id) {
+  const list = state.appointments.filter(a => a.id !== id);
+  if (list.length === state.appointments.length) return;
+  state.appointments = list;
   renderAppointments(list);
 }
 
+function matchesFilters(row) {
+  const { searchPatient, date } = state.filters;
+  const now = new Date();
+  const today = `${now.getFullYear()}-${String(now.getMonth() + 1).padStart(2, '0')}-${String(now.getDate()).padStart(2, '0')}`;
+  const day = date || today;
+  if (!String(row.appointmentTime).startsWith(day)) return false;
+  return !searchPatient || (row.patientName || '').toLowerCase().includes(searchPatient.toLowerCase());
+}
+
+function compareRows(a, b) {
+  const byTime = String(a.appointmentTime).localeCompare(String(b.appointmentTime));
+  return byTime !== 0 ? byTime : a.id - b.id;
+}
+
 function renderAppointments(list) {
   const container = document.getElementById('appointmentsList');
   container.innerHTML = '';
@@ -74,16 +113,23 @@ function renderAppointments(list) {
     item.className = 'appointment-item';
     item.innerHTML = `
       <div class="left">
-        <div class="patient">${a.patient?.fullName || 'Unknown Patient'}</div>
+        <div class="patient">${a.patientName || a.patient?.fullName || 'Unknown Patient'}</div>
         <div class="time">${formatDateTime(a.appointmentTime)}</div>
       </div>
       <div class="right">
         <button class="btn" data-view-presc>View Prescriptions</button>
       </div>
     `;
-    item.querySelector('[data-view-presc]').addEventListener('click', () => viewPrescriptions(a.patient?.id));
+    item.querySelector('[data-view-presc]').addEventListener('click', () => viewPrescriptions(a.patientId ?? a.patient?.id));
     container.appendChild(item);
   });
+  if (state.nextCursor) {
+    const more = document.createElement('button');
+    more.className = 'btn';
+    more.textContent = 'Load more';
+    more.addEventListener('click', () => loadAppointments(true));
+    container.appendChild(more);
+  }
 }
 
 async function viewPrescriptions(patientId) {
@@ -71,6 +71,7 @@ function redirectToUpdatePage(appointment) {
     doctorId: appointment.doctorId,
     appointmentDate: appointment.appointmentDate,
     appointmentTime: appointment.appointmentTimeOnly,
+    version: appointment.version ?? "",
   }).toString();
 
   // Redirect to the update page with the query string
@@ -2,23 +2,42 @@
 import { API_BASE_URL } from "../config/config.js";
 const APPOINTMENT_API = `${API_BASE_URL}/appointments`;
 
+// The token travels in the Authorization header, not in the URL
+function authHeader(token) {
+  return token ? { "Authorization": `Bearer ${token}` } : {};
+}
+
+
+// Last response per URL with its ETag, so a reload of the same day only revalidates (304 = unchanged)
+const dayCache = new Map();
 
 //This is for the doctor to get all the patient Appointments
 export async function getAllAppointments(date, patientName, token) {
-  const response = await fetch(`${APPOINTMENT_API}/${date}/${patientName}/${token}`);
+  const url = `${APPOINTMENT_API}/${date}/${patientName}`;
+  const cached = dayCache.get(url);
+  const headers = { ...authHeader(token) };
+  if (cached) headers["If-None-Match"] = cached.etag;
+  const response = await fetch(url, { headers, cache: "no-store" });
+  if (response.status === 304 && cached) {
+    return cached.data;
+  }
   if (!response.ok) {
     throw new Error("Failed to fetch appointments");
   }
 
-  return await response.json();
+  const data = await response.json();
+  const etag = response.headers.get("ETag");
+  if (etag) dayCache.set(url, { etag, data });
+  return data;
 }
 
 export async function bookAppointment(appointment, token) {
   try {
-    const response = await fetch(`${APPOINTMENT_API}/${token}`, {
+    const response = await fetch(APPOINTMENT_API, {
       method: "POST",
       headers: {
-        "Content-Type": "application/json"
+        "Content-Type": "application/json",
+        ...authHeader(token)
       },
       body: JSON.stringify(appointment)
     });
@@ -39,10 +58,11 @@ export async function bookAppointment(appointment, token) {
 
 export async function updateAppointment(appointment, token) {
   try {
-    const response = await fetch(`${APPOINTMENT_API}/${token}`, {
+    const response = await fetch(APPOINTMENT_API, {
       method: "PUT",
       headers: {
-        "Content-Type": "application/json"
+        "Content-Type": "application/json",
+        ...authHeader(token)
       },
       body: JSON.stringify(appointment)
     });
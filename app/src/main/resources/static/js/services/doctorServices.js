@@ -1,5 +1,5 @@
-
 // /services/doctorService.js
+import { API_BASE_URL } from '../config/config.js';
 const BASE = '/api';
 
 function authHeader() {
@@ -8,14 +8,20 @@ function authHeader() {
 }
 
 export const doctorService = {
-  cache: { doctors: null, myProfileId: null },
+  cache: { doctors: null, doctorsTag: null, myProfileId: null },
 
+  // Revalidates the cached list with If-None-Match on every call: the server answers 304 (no body,
+  // no query) until a doctor changes. `force` drops the cached copy and downloads the list again.
   async getAll(force = false) {
-    if (!force && this.cache.doctors) return this.cache.doctors;
-    const res = await fetch(`${BASE}/doctors`, { headers: { 'Content-Type': 'application/json', ...authHeader() } });
+    if (force) this.cache.doctorsTag = null;
+    const headers = { 'Content-Type': 'application/json', ...authHeader() };
+    if (this.cache.doctors && this.cache.doctorsTag) headers['If-None-Match'] = this.cache.doctorsTag;
+    const res = await fetch(`${BASE}/doctors`, { headers, cache: 'no-store' });
+    if (res.status === 304) return this.cache.doctors;
     if (!res.ok) throw new Error('Failed to fetch doctors');
     const json = await res.json();
     this.cache.doctors = json;
+    this.cache.doctorsTag = res.headers.get('ETag');
     return json;
   },
 
@@ -38,12 +44,96 @@ export const doctorService = {
     return me.id;
   },
 
-  async getAppointments(doctorId, { date, force } = {}) {
+  // One keyset page: { appointments, nextCursor }; pass nextCursor back as cursor for the next page.
+  // Date range and patient name are filtered on the server.
+  async getAppointments(doctorId, { from, to, patientName, cursor, size } = {}) {
     const q = new URLSearchParams();
-    q.set('doctorId', doctorId);
-    if (date) q.set('date', date);
+    if (doctorId) q.set('doctorId', doctorId);
+    if (from) q.set('from', from);
+    if (to) q.set('to', to);
+    if (patientName) q.set('patientName', patientName);
+    if (cursor) q.set('cursor', cursor);
+    if (size) q.set('size', size);
     const res = await fetch(`${BASE}/appointments?${q}`, { headers: { ...authHeader() } });
     if (!res.ok) throw new Error('Failed to fetch appointments');
     return res.json();
+  },
+
+  // Pushed changes to the calling doctor's appointments (server-sent events over fetch, so the token stays
+  // in the Authorization header). handlers: { ready, resync, booked, updated, status, cancelled }, each
+  // called with the parsed event data. Reconnects with backoff; every (re)connection starts with "ready".
+  // Returns a function that closes the stream.
+  watchAppointments(handlers) {
+    let controller = null;
+    let closed = false;
+    let delay = 1000;
+
+    const dispatch = (block) => {
+      let name = 'message';
+      const data = [];
+      for (const line of block.split('\n')) {
+        if (line.startsWith(':')) continue; // keep-alive comment
+        if (line.startsWith('event:')) name = line.slice(6).trim();
+        else if (line.startsWith('data:')) data.push(line.slice(5).trimStart());
+      }
+      const handler = handlers[name];
+      if (handler && data.length) handler(JSON.parse(data.join('\n')));
+    };
+
+    const connect = async () => {
+      controller = new AbortController();
+      try {
+        const res = await fetch(`${BASE}/appointments/stream`, {
+          headers: { 'Accept': 'text/event-stream', ...authHeader() },
+          signal: controller.signal,
+          cache: 'no-store'
+        });
+        if (!res.ok) throw new Error(`Appointment stream failed (${res.status})`);
+        delay = 1000;
+        const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffered = '';
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffered += value.replace(/\r\n?/g, '\n');
+          let end;
+          while ((end = buffered.indexOf('\n\n')) >= 0) {
+            dispatch(buffered.slice(0, end));
+            buffered = buffered.slice(end + 2);
+          }
+        }
+      } catch (err) {
+        if (closed) return;
+        console.warn(err);
+      }
+      if (!closed) {
+        setTimeout(connect, delay);
+        delay = Math.min(delay * 2, 30000);
+      }
+    };
+
+    connect();
+    return () => {
+      closed = true;
+      if (controller) controller.abort();
+    };
   }
 };
+
+// Dashboard filter: { doctors } matching name (contains), time ("AM", "PM" or "HH:mm-HH:mm") and specialty,
+// answered by GET /doctor/filter from the server's in-memory index; any argument may be null.
+export async function filterDoctors(name, time, specialty) {
+  const q = new URLSearchParams();
+  if (name) q.set('name', name);
+  if (time) q.set('time', time);
+  if (specialty) q.set('specialty', specialty);
+  const res = await fetch(`${API_BASE_URL}/doctor/filter?${q}`, { headers: { ...authHeader() } });
+  if (!res.ok) throw new Error('Failed to filter doctors');
+  return res.json();
+}
+
+// All doctors as the same rows filterDoctors returns.
+export async function getDoctors() {
+  const { doctors } = await filterDoctors(null, null, null);
+  return doctors;
+}
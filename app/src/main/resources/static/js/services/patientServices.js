@@ -41,10 +41,15 @@ export async function patientLogin(data) {
 
 }
 
+// The token travels in the Authorization header, not in the URL
+function authHeader(token) {
+  return token ? { "Authorization": `Bearer ${token}` } : {};
+}
+
 // For getting patient data (name ,id , etc ). Used in booking appointments
 export async function getPatientData(token) {
   try {
-    const response = await fetch(`${PATIENT_API}/${token}`);
+    const response = await fetch(`${PATIENT_API}/me`, { headers: authHeader(token) });
     const data = await response.json();
     if (response.ok) return data.patient;
     return null;
@@ -54,12 +59,15 @@ export async function getPatientData(token) {
   }
 }
 
-// the Backend API for fetching the patient record(visible in Doctor Dashboard) and Appointments (visible in Patient Dashboard) are same based on user(patient/doctor).
+// A patient reads their own appointments; a doctor reads their appointments with patient `id` from the
+// patient record (GET /doctor/patients/{id}/record)
 export async function getPatientAppointments(id, token, user) {
   try {
-    const response = await fetch(`${PATIENT_API}/${id}/${user}/${token}`);
+    const url = user === "doctor"
+      ? `${API_BASE_URL}/doctor/patients/${encodeURIComponent(id)}/record`
+      : `${PATIENT_API}/appointments`;
+    const response = await fetch(url, { headers: authHeader(token) });
     const data = await response.json();
-    console.log(data.appointments)
     if (response.ok) {
       return data.appointments;
     }
@@ -73,10 +81,14 @@ export async function getPatientAppointments(id, token, user) {
 
 export async function filterAppointments(condition, name, token) {
   try {
-    const response = await fetch(`${PATIENT_API}/filter/${condition}/${name}/${token}`, {
+    const params = new URLSearchParams();
+    if (condition) params.set("condition", condition);
+    if (name) params.set("name", name);
+    const response = await fetch(`${PATIENT_API}/appointments/filter?${params}`, {
       method: "GET",
       headers: {
         "Content-Type": "application/json",
+        ...authHeader(token)
       },
     });
 
@@ -85,7 +97,7 @@ export async function filterAppointments(condition, name, token) {
       return data;
 
     } else {
-      console.error("Failed to fetch doctors:", response.statusText);
+      console.error("Failed to fetch appointments:", response.statusText);
       return { appointments: [] };
 
     }
@@ -2,12 +2,19 @@
 import { API_BASE_URL } from '../config/config.js'
 
 const PRESCRITION_API = API_BASE_URL + "/prescription"
+
+// The token travels in the Authorization header, not in the URL
+function authHeader(token) {
+  return token ? { "Authorization": `Bearer ${token}` } : {};
+}
+
 export async function savePrescription(prescription, token) {
   try {
-    const response = await fetch(`${PRESCRITION_API}/${token}`, {
+    const response = await fetch(PRESCRITION_API, {
       method: "POST",
       headers: {
-        "Content-type": "application/json"
+        "Content-type": "application/json",
+        ...authHeader(token)
       },
       body: JSON.stringify(prescription)
     });
@@ -22,10 +29,11 @@ export async function savePrescription(prescription, token) {
 
 export async function getPrescription(appointmentId, token) {
   try {
-    const response = await fetch(`${PRESCRITION_API}/${appointmentId}/${token}`, {
+    const response = await fetch(`${PRESCRITION_API}/${appointmentId}`, {
       method: "GET",
       headers: {
-        "Content-Type": "application/json"
+        "Content-Type": "application/json",
+        ...authHeader(token)
       }
     });
 
@@ -44,3 +52,24 @@ export async function getPrescription(appointmentId, token) {
     throw error;
   }
 }
+
+// Prescriptions of many appointments in one request: { appointmentId: prescription }
+export async function getPrescriptions(appointmentIds, token) {
+  try {
+    const response = await fetch(`${PRESCRITION_API}/by-appointments?ids=${appointmentIds.join(",")}`, {
+      method: "GET",
+      headers: {
+        "Content-Type": "application/json",
+        ...authHeader(token)
+      }
+    });
+    const result = await response.json();
+    if (!response.ok) {
+      throw new Error(result.message || "Unable to fetch prescriptions");
+    }
+    return result.prescriptions;
+  } catch (error) {
+    console.error("Error :: getPrescriptions ::", error);
+    throw error;
+  }
+}
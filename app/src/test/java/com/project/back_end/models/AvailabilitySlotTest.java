@@ -0,0 +1,54 @@
+package com.project.back_end.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilitySlotTest {
+
+    @Test
+    void parsesPlainRange() {
+        AvailabilitySlot slot = AvailabilitySlot.parse("09:00-10:00");
+
+        assertThat(slot).isEqualTo(new AvailabilitySlot(AvailabilitySlot.EVERY_DAY, 9 * 60, 10 * 60));
+        assertThat(slot.getWeekday()).isNull();
+    }
+
+    @Test
+    void parsesRangeWithSpacesAroundTheDash() {
+        assertThat(AvailabilitySlot.parse("09:00 - 10:00"))
+                .isEqualTo(new AvailabilitySlot(AvailabilitySlot.EVERY_DAY, 9 * 60, 10 * 60));
+        assertThat(AvailabilitySlot.parse("  09:00 -10:00 "))
+                .isEqualTo(new AvailabilitySlot(AvailabilitySlot.EVERY_DAY, 9 * 60, 10 * 60));
+    }
+
+    @Test
+    void parsesLeadingWeekday() {
+        AvailabilitySlot slot = AvailabilitySlot.parse("MON 10:00-11:00");
+
+        assertThat(slot).isEqualTo(new AvailabilitySlot(DayOfWeek.MONDAY.getValue(), 10 * 60, 11 * 60));
+        assertThat(AvailabilitySlot.parse("Monday 10:00 - 11:00")).isEqualTo(slot);
+        assertThat(AvailabilitySlot.parse("mon 10:00-11:00")).isEqualTo(slot);
+    }
+
+    @Test
+    void toStringRoundTrips() {
+        AvailabilitySlot slot = AvailabilitySlot.parse("FRI 14:30-15:45");
+
+        assertThat(AvailabilitySlot.parse(slot.toString())).isEqualTo(slot);
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThat(AvailabilitySlot.parse(null)).isNull();
+        assertThat(AvailabilitySlot.parse("")).isNull();
+        assertThat(AvailabilitySlot.parse("09:00")).isNull();
+        assertThat(AvailabilitySlot.parse("10:00-09:00")).isNull();
+        assertThat(AvailabilitySlot.parse("25:00-26:00")).isNull();
+        assertThat(AvailabilitySlot.parse("XYZ 09:00-10:00")).isNull();
+        assertThat(AvailabilitySlot.parse("MON")).isNull();
+        assertThat(AvailabilitySlot.parse("morning")).isNull();
+    }
+}
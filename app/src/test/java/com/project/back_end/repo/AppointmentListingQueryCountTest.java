@@ -0,0 +1,113 @@
+package com.project.back_end.repo;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.services.AppointmentChangeListener;
+import com.project.back_end.services.DoctorChangeListener;
+import com.project.back_end.services.DoctorSearchIndex;
+import com.project.back_end.services.PatientChangeListener;
+import com.project.back_end.services.SlotBitmapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements Hibernate issues when listing 1,000 appointments spread over
+ * 20 doctors and 50 patients (H2, Hibernate statistics). The DTO listing is one joined
+ * select; loading the entities is one select too, because the doctor and patient
+ * associations are LAZY and nothing touches them.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({AppointmentChangeListener.class, DoctorChangeListener.class, PatientChangeListener.class})
+class AppointmentListingQueryCountTest {
+
+    // Dependencies of the entity listeners; the in-memory views are not under test
+    @MockitoBean
+    private DoctorSearchIndex doctorSearchIndex;
+
+    @MockitoBean
+    private SlotBitmapCache slotBitmapCache;
+
+    private static final int DOCTORS = 20;
+    private static final int PATIENTS = 50;
+    private static final int APPOINTMENTS = 1_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private LocalDateTime start;
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        List<Doctor> doctors = new ArrayList<>();
+        for (int d = 0; d < DOCTORS; d++) {
+            doctors.add(entityManager.persist(new Doctor("Doctor " + d, "Cardiology", "doctor" + d + "@example.com",
+                    "secret1", "9999999999", List.of("09:00-17:00"))));
+        }
+        List<Patient> patients = new ArrayList<>();
+        for (int p = 0; p < PATIENTS; p++) {
+            patients.add(entityManager.persist(new Patient("Patient " + p, "patient" + p + "@example.com",
+                    "secret1", "9999999999", "Street " + p)));
+        }
+        start = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            // one appointment per doctor per hour
+            entityManager.persist(new Appointment(doctors.get(i % DOCTORS), patients.get(i % PATIENTS),
+                    start.plusHours(i / DOCTORS), 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void dtoListingIsOneQuery() {
+        List<AppointmentDTO> rows = appointmentRepository.findPageAllDoctors(null, start, 0L,
+                start.plusDays(10), Limit.of(APPOINTMENTS));
+
+        assertThat(rows).hasSize(APPOINTMENTS);
+        assertThat(rows).allSatisfy(row -> assertThat(row.getPatientName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void entityListingDoesNotLoadDoctorsOrPatients() {
+        List<Appointment> appointments = appointmentRepository.findAll();
+        long doctorIds = appointments.stream().map(a -> a.getDoctor().getId()).distinct().count();
+
+        assertThat(appointments).hasSize(APPOINTMENTS);
+        assertThat(doctorIds).isEqualTo(DOCTORS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(APPOINTMENTS);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+}
@@ -0,0 +1,188 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Many threads book one popular doctor at once through AppointmentService.bookAppointment.
+ * The repository is an in-memory fake with a small write latency (to widen the check-then-insert
+ * window) that also enforces the unique (doctor, time) key. Asserts no two stored appointments
+ * overlap and logs the throughput.
+ */
+class AppointmentBookingConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentBookingConcurrencyTest.class);
+
+    private static final long DOCTOR_ID = 7L;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 20_000;
+    private static final int DAYS = 20;
+
+    private final Map<Long, Appointment> stored = new ConcurrentHashMap<>();
+    private final Set<String> uniqueKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicLong ids = new AtomicLong();
+
+    @Test
+    void popularDoctorIsNeverDoubleBooked() throws Exception {
+        Doctor doctor = new Doctor("Dr. Popular", "Cardiology", "popular@example.com", "secret1", "9999999999",
+                List.of("09:00-17:00"));
+        doctor.setId(DOCTOR_ID);
+        Patient patient = new Patient("Load Patient", "load@example.com", "secret1", "9999999999", "Street 1");
+        patient.setId(1L);
+
+        DoctorRepository doctors = mock(DoctorRepository.class, withSettings().stubOnly());
+        when(doctors.findById(DOCTOR_ID)).thenReturn(Optional.of(doctor));
+        when(doctors.getReferenceById(DOCTOR_ID)).thenReturn(doctor);
+        PatientRepository patients = mock(PatientRepository.class, withSettings().stubOnly());
+        when(patients.getReferenceById(1L)).thenReturn(patient);
+
+        AppointmentRepository appointments = mock(AppointmentRepository.class, withSettings().stubOnly());
+        PlatformTransactionManager tx = new NoOpTransactionManager();
+        SlotBitmapCache cache = new SlotBitmapCache(doctors, appointments, tx);
+
+        when(appointments.findAppointmentTimes(any(), any(), any())).thenAnswer(inv -> {
+            LocalDateTime start = inv.getArgument(1);
+            LocalDateTime end = inv.getArgument(2);
+            List<LocalDateTime> times = new ArrayList<>();
+            for (Appointment a : stored.values()) {
+                if (!a.getAppointmentTime().isBefore(start) && a.getAppointmentTime().isBefore(end)) {
+                    times.add(a.getAppointmentTime());
+                }
+            }
+            return times;
+        });
+        when(appointments.save(any(Appointment.class))).thenAnswer(inv -> {
+            Appointment a = inv.getArgument(0);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200)); // simulated insert latency
+            if (!uniqueKeys.add(a.getDoctor().getId() + "@" + a.getAppointmentTime())) {
+                throw new DataIntegrityViolationException("uk_appt_doctor_time");
+            }
+            a.setId(ids.incrementAndGet());
+            stored.put(a.getId(), a);
+            // what AppointmentChangeListener publishes after commit
+            cache.onAppointmentChanged(new AppointmentChangedEvent(AppointmentChangedEvent.Type.BOOKED,
+                    a.getId(), DOCTOR_ID, 1L, a.getAppointmentTime(), null, 0, null));
+            return a;
+        });
+
+        Service service = mock(Service.class, withSettings().stubOnly());
+        when(service.validateAppointment(anyLong(), any(), any())).thenAnswer(inv ->
+                cache.check(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2)));
+
+        AppointmentService appointmentService = new AppointmentService(appointments, doctors,
+                patients, cache, new BookingLocks(1024),
+                new OptimisticRetry(new SimpleMeterRegistry(), 3, 20), tx, service);
+
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger other = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (next.getAndIncrement() < ATTEMPTS) {
+                    LocalDate day = firstDay.plusDays(random.nextInt(DAYS));
+                    LocalTime time = LocalTime.of(9, 0).plusMinutes(15L * random.nextInt(29)); // 09:00..16:00
+                    Appointment appointment = new Appointment(doctor, patient, day.atTime(time), 0);
+                    ResponseEntity<Map<String, String>> response = appointmentService.bookAppointment(appointment, 1L);
+                    if (response.getStatusCode() == HttpStatus.CREATED) created.incrementAndGet();
+                    else if (response.getStatusCode() == HttpStatus.CONFLICT) conflicts.incrementAndGet();
+                    else other.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        log.info("booking stress: {} attempts from {} threads in {}s ({} bookings/s attempted), "
+                        + "{} created, {} conflicts, {} other",
+                ATTEMPTS, THREADS, String.format("%.2f", seconds), Math.round(ATTEMPTS / seconds),
+                created.get(), conflicts.get(), other.get());
+
+        assertThat(created.get()).isEqualTo(stored.size());
+        assertThat(other.get()).isZero();
+        assertThat(created.get() + conflicts.get()).isEqualTo(ATTEMPTS);
+        assertNoOverlaps();
+    }
+
+    private void assertNoOverlaps() {
+        List<LocalDateTime> times = new ArrayList<>();
+        stored.values().forEach(a -> times.add(a.getAppointmentTime()));
+        times.sort(null);
+        assertThat(new HashSet<>(times)).hasSameSizeAs(times);
+        for (int i = 1; i < times.size(); i++) {
+            long gap = ChronoUnit.MINUTES.between(times.get(i - 1), times.get(i));
+            assertThat(gap)
+                    .as("appointments at %s and %s overlap", times.get(i - 1), times.get(i))
+                    .isGreaterThanOrEqualTo(SlotBitmapCache.APPOINTMENT_MINUTES);
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Books and completes appointments through AppointmentService against H2 with real commits (no test
+ * transaction), so the inserts, merges and flush-time bean validation the mock-repository tests cannot
+ * see actually happen. Request bodies are shaped like the dashboards send them: a doctor with only an id.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AppointmentChangeListener.class, DoctorChangeListener.class, PatientChangeListener.class})
+class AppointmentBookingPersistenceTest {
+
+    // Dependencies of the entity listeners; the in-memory views are not under test
+    @MockitoBean
+    private DoctorSearchIndex doctorSearchIndex;
+
+    @MockitoBean
+    private SlotBitmapCache slotBitmapCache;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Doctor doctor;
+    private Patient patient;
+    private Patient otherPatient;
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        doctor = doctorRepository.save(new Doctor("Dr. Persist", "Cardiology", "persist@example.com", "secret1",
+                "9999999999", List.of("09:00-17:00")));
+        patient = patientRepository.save(new Patient("Booking Patient", "booking@example.com", "secret1",
+                "9999999999", "Street 1"));
+        otherPatient = patientRepository.save(new Patient("Other Patient", "other@example.com", "secret1",
+                "9999999999", "Street 2"));
+
+        Service service = mock(Service.class);
+        when(service.validateAppointment(anyLong(), any(), any())).thenReturn(SlotBitmapCache.VALID);
+        appointmentService = new AppointmentService(appointmentRepository, doctorRepository, patientRepository,
+                slotBitmapCache, new BookingLocks(1024), new OptimisticRetry(new SimpleMeterRegistry(), 3, 20),
+                transactionManager, service);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void bookingWithAnUnversionedDoctorReferenceIsStored() {
+        LocalDateTime time = tomorrowAt(10);
+
+        ResponseEntity<Map<String, String>> response = appointmentService.bookAppointment(request(time), patient.getId());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        List<Appointment> stored = appointmentRepository.findAll();
+        assertThat(stored).hasSize(1);
+        assertThat(stored.get(0).getDoctor().getId()).isEqualTo(doctor.getId());
+        assertThat(stored.get(0).getPatient().getId()).isEqualTo(patient.getId());
+        assertThat(stored.get(0).getAppointmentTime()).isEqualTo(time);
+    }
+
+    @Test
+    void clientIdAndVersionCannotOverwriteAnotherPatientsAppointment() {
+        Appointment theirs = appointmentRepository.save(new Appointment(doctor, otherPatient, tomorrowAt(9), 0));
+
+        Appointment request = request(tomorrowAt(11));
+        request.setId(theirs.getId());
+        request.setVersion(theirs.getVersion());
+        ResponseEntity<Map<String, String>> response = appointmentService.bookAppointment(request, patient.getId());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(appointmentRepository.count()).isEqualTo(2);
+        Appointment unchanged = appointmentRepository.findById(theirs.getId()).orElseThrow();
+        assertThat(unchanged.getPatient().getId()).isEqualTo(otherPatient.getId());
+        assertThat(unchanged.getAppointmentTime()).isEqualTo(tomorrowAt(9));
+        assertThat(unchanged.getVersion()).isEqualTo(theirs.getVersion());
+    }
+
+    @Test
+    void pastTimeIsRejectedBeforeAnyInsert() {
+        ResponseEntity<Map<String, String>> response =
+                appointmentService.bookAppointment(request(LocalDateTime.now().minusHours(1)), patient.getId());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(appointmentRepository.count()).isZero();
+    }
+
+    @Test
+    void pastAppointmentCanBeMarkedCompleted() {
+        Appointment past = appointmentRepository.save(
+                new Appointment(doctor, patient, LocalDateTime.now().minusDays(1).withNano(0), 0));
+
+        ResponseEntity<Map<String, String>> response = appointmentService.changeStatus(past.getId(), 1);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(appointmentRepository.findById(past.getId()).orElseThrow().getStatus()).isEqualTo(1);
+    }
+
+    // what loggedPatient.js posts: the doctor as a bare {id}, no version
+    private Appointment request(LocalDateTime time) {
+        Doctor reference = new Doctor();
+        reference.setId(doctor.getId());
+        Appointment request = new Appointment();
+        request.setDoctor(reference);
+        request.setAppointmentTime(time);
+        return request;
+    }
+
+    private static LocalDateTime tomorrowAt(int hour) {
+        return LocalDateTime.now().plusDays(1).withHour(hour).withMinute(0).withSecond(0).withNano(0);
+    }
+}
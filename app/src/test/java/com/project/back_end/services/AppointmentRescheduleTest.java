@@ -0,0 +1,155 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Reschedules through AppointmentService.updateAppointment against the real SlotBitmapCache: an appointment
+ * moved by less than its own length must not clash with the slots it occupies itself, while other
+ * appointments of the day still do.
+ */
+class AppointmentRescheduleTest {
+
+    private static final long DOCTOR_ID = 7L;
+    private static final long PATIENT_ID = 1L;
+
+    private final Map<Long, Appointment> stored = new ConcurrentHashMap<>();
+    private final LocalDate day = LocalDate.now().plusDays(1);
+
+    private Doctor doctor;
+    private Patient patient;
+    private SlotBitmapCache cache;
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        doctor = new Doctor("Dr. Move", "Cardiology", "move@example.com", "secret1", "9999999999",
+                List.of("09:00-17:00"));
+        doctor.setId(DOCTOR_ID);
+        patient = new Patient("Moving Patient", "moving@example.com", "secret1", "9999999999", "Street 1");
+        patient.setId(PATIENT_ID);
+
+        DoctorRepository doctors = mock(DoctorRepository.class, withSettings().stubOnly());
+        when(doctors.findById(DOCTOR_ID)).thenReturn(Optional.of(doctor));
+
+        AppointmentRepository appointments = mock(AppointmentRepository.class, withSettings().stubOnly());
+        PlatformTransactionManager tx = new NoOpTransactionManager();
+        cache = new SlotBitmapCache(doctors, appointments, tx);
+
+        when(appointments.findAppointmentTimes(any(), any(), any())).thenAnswer(inv -> {
+            LocalDateTime start = inv.getArgument(1);
+            LocalDateTime end = inv.getArgument(2);
+            List<LocalDateTime> times = new ArrayList<>();
+            for (Appointment a : stored.values()) {
+                if (!a.getAppointmentTime().isBefore(start) && a.getAppointmentTime().isBefore(end)) {
+                    times.add(a.getAppointmentTime());
+                }
+            }
+            return times;
+        });
+        when(appointments.findById(any())).thenAnswer(inv -> Optional.ofNullable(stored.get(inv.<Long>getArgument(0))));
+        when(appointments.findDoctorIdById(any())).thenAnswer(inv ->
+                Optional.ofNullable(stored.get(inv.<Long>getArgument(0))).map(a -> a.getDoctor().getId()));
+        when(appointments.save(any(Appointment.class))).thenAnswer(inv -> {
+            Appointment a = inv.getArgument(0);
+            cache.invalidate(DOCTOR_ID, a.getAppointmentTime().toLocalDate());
+            return a;
+        });
+
+        Service service = mock(Service.class, withSettings().stubOnly());
+        when(service.validateAppointment(anyLong(), any(), any(), any())).thenAnswer(inv ->
+                cache.check(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.<LocalDateTime>getArgument(3)));
+
+        appointmentService = new AppointmentService(appointments, doctors, mock(PatientRepository.class), cache,
+                new BookingLocks(1024), new OptimisticRetry(new SimpleMeterRegistry(), 3, 20), tx, service);
+    }
+
+    @Test
+    void movingThirtyMinutesLaterDoesNotClashWithItself() {
+        store(1L, LocalTime.of(9, 0));
+
+        ResponseEntity<Map<String, String>> response = reschedule(1L, LocalTime.of(9, 30));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(stored.get(1L).getAppointmentTime()).isEqualTo(day.atTime(9, 30));
+    }
+
+    @Test
+    void movingFromAnUnalignedTimeDoesNotClashWithItself() {
+        store(1L, LocalTime.of(9, 10));
+        store(2L, LocalTime.of(10, 10));
+
+        assertThat(reschedule(1L, LocalTime.of(9, 0)).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void movingIntoAnotherAppointmentStillClashes() {
+        store(1L, LocalTime.of(9, 0));
+        store(2L, LocalTime.of(10, 15));
+
+        ResponseEntity<Map<String, String>> response = reschedule(1L, LocalTime.of(9, 30));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(stored.get(1L).getAppointmentTime()).isEqualTo(day.atTime(9, 0));
+    }
+
+    private void store(long id, LocalTime time) {
+        Appointment appointment = new Appointment(doctor, patient, day.atTime(time), 0);
+        appointment.setId(id);
+        appointment.setVersion(0L);
+        stored.put(id, appointment);
+        cache.invalidate(DOCTOR_ID, day);
+    }
+
+    private ResponseEntity<Map<String, String>> reschedule(long id, LocalTime time) {
+        Appointment change = new Appointment();
+        change.setId(id);
+        change.setAppointmentTime(day.atTime(time));
+        return appointmentService.updateAppointment(change, PATIENT_ID);
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.project.back_end.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one bcrypt login check per cost factor and recommends
+ * {@code security.password.bcrypt-cost} for the machine it runs on.
+ *
+ * Run on the target hardware (not a laptop) after {@code mvn test-compile}:
+ * <pre>
+ *   java -cp target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.project.back_end.services.PasswordHasherBenchmark [targetMillis]
+ * </pre>
+ * The recommendation is the highest cost whose average verify time stays within
+ * the target (default 100 ms). Size {@code security.password.pool-threads} to the
+ * number of cores you are willing to spend on logins.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHasherBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasherBenchmark.class);
+
+    @Param({"10", "11", "12", "13", "14"})
+    public int cost;
+
+    private PasswordHasher hasher;
+    private String stored;
+
+    @Setup
+    public void setUp() {
+        hasher = new PasswordHasher(cost);
+        stored = hasher.hash("correct horse battery staple");
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.matches("correct horse battery staple", stored);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        double targetMillis = args.length > 0 ? Double.parseDouble(args[0]) : 100.0;
+        Options options = new OptionsBuilder()
+                .include(PasswordHasherBenchmark.class.getSimpleName())
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        int recommended = -1;
+        for (RunResult result : results) {
+            int cost = Integer.parseInt(result.getParams().getParam("cost"));
+            double millis = result.getPrimaryResult().getScore();
+            log.info("cost {}: {} ms per verify", cost, String.format("%.1f", millis));
+            if (millis <= targetMillis && cost > recommended) {
+                recommended = cost;
+            }
+        }
+        if (recommended < 0) {
+            log.warn("No cost stays under {} ms; use the lowest measured cost and add cores", Math.round(targetMillis));
+        } else {
+            log.info("security.password.bcrypt-cost={} (target {} ms)", recommended, Math.round(targetMillis));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.project.back_end.services;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.project.back_end.DTO.AppointmentParticipants;
+import com.project.back_end.config.MongoIndexes;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.PrescriptionRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Many threads save prescriptions for the same appointments at once through
+ * PrescriptionService.savePrescription against a real MongoDB (a throwaway database,
+ * dropped afterwards). Asserts exactly one 201 and one stored document per appointment,
+ * every other attempt answered 400.
+ *
+ * Needs a MongoDB server: MONGODB_TEST_URI=mongodb://localhost:27017 mvn test
+ */
+@EnabledIfEnvironmentVariable(named = "MONGODB_TEST_URI", matches = ".+")
+class PrescriptionSaveConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int APPOINTMENTS = 200;
+    private static final int ATTEMPTS_PER_APPOINTMENT = 8;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void connect() {
+        client = MongoClients.create(System.getenv("MONGODB_TEST_URI"));
+        mongoTemplate = new MongoTemplate(client, "prescription_test_" + UUID.randomUUID().toString().replace("-", ""));
+        new MongoIndexes(mongoTemplate).createIndexes();
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        mongoTemplate.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    void concurrentSavesStoreOnePrescriptionPerAppointment() throws Exception {
+        PrescriptionRepository prescriptions = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(PrescriptionRepository.class);
+        AppointmentRepository appointments = mock(AppointmentRepository.class, withSettings().stubOnly());
+        when(appointments.findParticipantsByIds(any())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> new AppointmentParticipants(id, 7L, id + 1000)).toList();
+        });
+        PrescriptionService service = new PrescriptionService(prescriptions, appointments, mongoTemplate);
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger other = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+        int attempts = APPOINTMENTS * ATTEMPTS_PER_APPOINTMENT;
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = next.getAndIncrement(); i < attempts; i = next.getAndIncrement()) {
+                    long appointmentId = 1 + i / ATTEMPTS_PER_APPOINTMENT; // neighbouring attempts hit the same appointment
+                    Prescription prescription = new Prescription("Load Patient", "Paracetamol", "500mg",
+                            "attempt " + i, appointmentId);
+                    ResponseEntity<Map<String, String>> response = service.savePrescription(prescription);
+                    if (response.getStatusCode() == HttpStatus.CREATED) created.incrementAndGet();
+                    else if (response.getStatusCode() == HttpStatus.BAD_REQUEST) rejected.incrementAndGet();
+                    else other.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(other.get()).isZero();
+        assertThat(created.get()).isEqualTo(APPOINTMENTS);
+        assertThat(rejected.get()).isEqualTo(attempts - APPOINTMENTS);
+        assertThat(mongoTemplate.count(new Query(), Prescription.class))
+                .isEqualTo(APPOINTMENTS);
+
+        List<Document> duplicates = mongoTemplate.aggregate(Aggregation.newAggregation(
+                Aggregation.group("appointmentId").count().as("n"),
+                Aggregation.match(Criteria.where("n").gt(1))),
+                "prescriptions", Document.class).getMappedResults();
+        assertThat(duplicates).isEmpty();
+    }
+}
@@ -0,0 +1,217 @@
+package com.project.back_end.services;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Read-validate-save under contention: the {@code @Version} check used by
+ * AppointmentService/DoctorService ({@code update ... where id = ? and version = ?}, retried
+ * when it matches no row) against a pessimistic {@code SELECT ... FOR UPDATE} held across
+ * the same validation work.
+ *
+ * {@code hotRows} sets the contention (1 = every thread edits the same appointment, 1024 =
+ * front desk spread over a full calendar); {@code workMicros} is the time between reading the
+ * row and writing it (validation, slot check). Reported: updates per ms, and per update the
+ * optimistic retries and the attempts that ran out of retries.
+ *
+ * Defaults to an in-memory H2 database; pass a JDBC URL to run against MySQL, which is the
+ * number that matters:
+ * <pre>
+ *   java -cp target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        com.project.back_end.services.UpdateContentionBenchmark [jdbcUrl [user [password]]]
+ * </pre>
+ * The benchmark creates and drops its own table, {@code contention_bench}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class UpdateContentionBenchmark {
+
+    // Same policy as concurrency.optimistic.max-attempts
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Param({"1", "16", "1024"})
+    public int hotRows;
+
+    @Param({"0", "200"})
+    public int workMicros;
+
+    @Param({"jdbc:h2:mem:contention;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"})
+    public String url;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    @Setup(Level.Trial)
+    public void createTable() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists contention_bench");
+            statement.execute("create table contention_bench (id bigint primary key, status int not null, "
+                    + "version bigint not null)");
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into contention_bench (id, status, version) values (?, 0, 0)")) {
+                for (int id = 1; id <= hotRows; id++) {
+                    insert.setLong(1, id);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void dropTable() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table contention_bench");
+        }
+    }
+
+    // One connection per benchmark thread, plus the per-update counters JMH reports next to the score
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Session {
+
+        public long retries;
+        public long exhausted;
+
+        private Connection connection;
+        private PreparedStatement read;
+        private PreparedStatement readForUpdate;
+        private PreparedStatement versionedWrite;
+        private PreparedStatement write;
+
+        @Setup(Level.Trial)
+        public void open(UpdateContentionBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.url, benchmark.user, benchmark.password);
+            connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+            read = connection.prepareStatement("select status, version from contention_bench where id = ?");
+            readForUpdate = connection.prepareStatement(
+                    "select status, version from contention_bench where id = ? for update");
+            versionedWrite = connection.prepareStatement(
+                    "update contention_bench set status = ?, version = version + 1 where id = ? and version = ?");
+            write = connection.prepareStatement(
+                    "update contention_bench set status = ?, version = version + 1 where id = ?");
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retries = 0;
+            exhausted = 0;
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    // Read, validate, then write only if nobody wrote in between; a lost race re-reads and tries again
+    @Benchmark
+    public int optimistic(Session session) throws SQLException {
+        long id = pickRow();
+        session.connection.setAutoCommit(true);
+        for (int attempt = 1; ; attempt++) {
+            int status;
+            long version;
+            session.read.setLong(1, id);
+            try (ResultSet row = session.read.executeQuery()) {
+                row.next();
+                status = row.getInt(1);
+                version = row.getLong(2);
+            }
+            work();
+            session.versionedWrite.setInt(1, status ^ 1);
+            session.versionedWrite.setLong(2, id);
+            session.versionedWrite.setLong(3, version);
+            if (session.versionedWrite.executeUpdate() == 1) {
+                return attempt;
+            }
+            if (attempt >= MAX_ATTEMPTS) {
+                session.exhausted++; // answered 409
+                return attempt;
+            }
+            session.retries++;
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(ThreadLocalRandom.current().nextLong(20L * attempt + 1)));
+        }
+    }
+
+    // Lock the row, validate, write, commit: concurrent editors of the row wait for each other
+    @Benchmark
+    public int pessimistic(Session session) throws SQLException {
+        long id = pickRow();
+        session.connection.setAutoCommit(false);
+        try {
+            int status;
+            session.readForUpdate.setLong(1, id);
+            try (ResultSet row = session.readForUpdate.executeQuery()) {
+                row.next();
+                status = row.getInt(1);
+            }
+            work();
+            session.write.setInt(1, status ^ 1);
+            session.write.setLong(2, id);
+            session.write.executeUpdate();
+            session.connection.commit();
+            return status;
+        } catch (SQLException ex) {
+            session.connection.rollback();
+            throw ex;
+        }
+    }
+
+    private long pickRow() {
+        return 1 + ThreadLocalRandom.current().nextInt(hotRows);
+    }
+
+    private void work() {
+        if (workMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(workMicros));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(UpdateContentionBenchmark.class.getSimpleName());
+        if (args.length > 0) options.param("url", args[0]);
+        if (args.length > 1) options.param("user", args[1]);
+        if (args.length > 2) options.param("password", args[2]);
+        Options built = options.build();
+        new Runner(built).run();
+    }
+}
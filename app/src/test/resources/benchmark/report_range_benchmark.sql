@@ -0,0 +1,165 @@
+-- Reporting predicate benchmark: DATE()/YEAR()/MONTH() vs half-open ranges
+-- Database: smart_clinic_bench (scratch schema, safe to drop)
+--
+-- Builds the data.sql schema with a generated appointment table (default 3,000,000 rows
+-- over 3 years, 200 doctors, 50,000 patients), then runs each report query in its old
+-- function-wrapped form and in its range form under EXPLAIN ANALYZE.
+--
+--   mysql -u root -p < report_range_benchmark.sql > report_range_benchmark.out
+--
+-- Expected plans (MySQL 8.0.18+):
+--   old  -> "Table scan on a" / "Filter: (cast(a.appointment_time as date) = ...)"
+--           rows examined = whole table
+--   new  -> "Index range scan on a using idx_appt_time over (... <= appointment_time < ...)"
+--           rows examined = the rows of that day/month/year only
+-- The daily query should drop from a full scan (~seconds) to a few ms; month and year
+-- scale with the fraction of the table they cover.
+
+-- 1) Schema -------------------------------------------------------------------
+DROP DATABASE IF EXISTS smart_clinic_bench;
+CREATE DATABASE smart_clinic_bench;
+USE smart_clinic_bench;
+
+CREATE TABLE doctors (
+  id INT AUTO_INCREMENT PRIMARY KEY,
+  full_name VARCHAR(100) NOT NULL,
+  specialty VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE patients (
+  id INT AUTO_INCREMENT PRIMARY KEY,
+  full_name VARCHAR(100) NOT NULL,
+  email VARCHAR(255) UNIQUE,
+  phone VARCHAR(20)
+);
+
+CREATE TABLE appointments (
+  id INT AUTO_INCREMENT PRIMARY KEY,
+  doctor_id INT NOT NULL,
+  patient_id INT NOT NULL,
+  appointment_time DATETIME NOT NULL,
+  status ENUM('Scheduled','Completed','Cancelled','NoShow') NOT NULL DEFAULT 'Scheduled',
+  CONSTRAINT fk_appt_doctor FOREIGN KEY (doctor_id) REFERENCES doctors(id),
+  CONSTRAINT fk_appt_patient FOREIGN KEY (patient_id) REFERENCES patients(id),
+  INDEX idx_appt_time (appointment_time),
+  INDEX idx_appt_doctor_time (doctor_id, appointment_time),
+  INDEX idx_appt_patient_time (patient_id, appointment_time)
+);
+
+-- 2) Generated data -------------------------------------------------------------
+SET @doctors = 200;
+SET @patients = 50000;
+SET @appointments = 3000000;
+SET @first_day = '2023-01-01';
+SET @days = 3 * 365;
+
+-- 0..9999 helper sequence
+CREATE TABLE seq (n INT PRIMARY KEY);
+INSERT INTO seq (n)
+SELECT a.d + 10 * b.d + 100 * c.d + 1000 * e.d
+FROM (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) a,
+     (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) b,
+     (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) c,
+     (SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+      UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) e;
+
+INSERT INTO doctors (full_name, specialty)
+SELECT CONCAT('Dr. Bench ', n), ELT(1 + n % 5, 'General Physician', 'Cardiology', 'Dermatology', 'Neurology', 'Pediatrics')
+FROM seq WHERE n < @doctors;
+
+INSERT INTO patients (full_name, email, phone)
+SELECT CONCAT('Patient ', s1.n * 10000 + s2.n),
+       CONCAT('patient', s1.n * 10000 + s2.n, '@bench.example'),
+       LPAD(s1.n * 10000 + s2.n, 10, '9')
+FROM seq s1 JOIN seq s2
+WHERE s1.n < CEIL(@patients / 10000) AND s1.n * 10000 + s2.n < @patients;
+
+-- Deterministic pseudo-random spread: doctor, patient, day and 15-minute slot from the row number
+INSERT INTO appointments (doctor_id, patient_id, appointment_time, status)
+SELECT 1 + (k * 7919) % @doctors,
+       1 + (k * 104729) % @patients,
+       TIMESTAMP(@first_day) + INTERVAL (k * 31) % @days DAY + INTERVAL (36 + k % 40) * 15 MINUTE,
+       ELT(1 + k % 4, 'Scheduled', 'Completed', 'Cancelled', 'NoShow')
+FROM (SELECT s1.n * 10000 + s2.n AS k FROM seq s1 JOIN seq s2
+      WHERE s1.n < CEIL(@appointments / 10000)) g
+WHERE k < @appointments;
+
+ANALYZE TABLE doctors, patients, appointments;
+SELECT COUNT(*) AS appointment_rows FROM appointments;
+
+-- 3) Daily report by doctor ------------------------------------------------------
+SET @day = '2024-06-12';
+
+-- old: DATE() on the column
+EXPLAIN ANALYZE
+SELECT d.id, d.full_name, COUNT(*) AS appointments_count
+FROM appointments a JOIN doctors d ON d.id = a.doctor_id
+WHERE DATE(a.appointment_time) = @day
+GROUP BY d.id, d.full_name
+ORDER BY appointments_count DESC, d.full_name;
+
+-- new: half-open range
+EXPLAIN ANALYZE
+SELECT d.id, d.full_name, COUNT(*) AS appointments_count
+FROM appointments a JOIN doctors d ON d.id = a.doctor_id
+WHERE a.appointment_time >= @day
+  AND a.appointment_time <  @day + INTERVAL 1 DAY
+GROUP BY d.id, d.full_name
+ORDER BY appointments_count DESC, d.full_name;
+
+-- 4) Top doctor by distinct patients in a month --------------------------------------
+SET @year = 2024;
+SET @month = 6;
+SET @month_start = MAKEDATE(@year, 1) + INTERVAL (@month - 1) MONTH;
+
+EXPLAIN ANALYZE
+SELECT d.id, d.full_name, COUNT(DISTINCT a.patient_id) AS distinct_patients
+FROM appointments a JOIN doctors d ON d.id = a.doctor_id
+WHERE YEAR(a.appointment_time) = @year AND MONTH(a.appointment_time) = @month
+GROUP BY d.id, d.full_name
+ORDER BY distinct_patients DESC, d.full_name
+LIMIT 1;
+
+EXPLAIN ANALYZE
+SELECT d.id, d.full_name, COUNT(DISTINCT a.patient_id) AS distinct_patients
+FROM appointments a JOIN doctors d ON d.id = a.doctor_id
+WHERE a.appointment_time >= @month_start
+  AND a.appointment_time <  @month_start + INTERVAL 1 MONTH
+GROUP BY d.id, d.full_name
+ORDER BY distinct_patients DESC, d.full_name
+LIMIT 1;
+
+-- 5) Top doctor by distinct patients in a year ----------------------------------------
+-- A year is a third of this dataset; the optimizer may still pick the range scan or,
+-- correctly, a full scan. Either way the predicate no longer rules the index out.
+SET @year_start = MAKEDATE(@year, 1);
+
+EXPLAIN ANALYZE
+SELECT d.id, d.full_name, COUNT(DISTINCT a.patient_id) AS distinct_patients
+FROM appointments a JOIN doctors d ON d.id = a.doctor_id
+WHERE YEAR(a.appointment_time) = @year
+GROUP BY d.id, d.full_name
+ORDER BY distinct_patients DESC, d.full_name
+LIMIT 1;
+
+EXPLAIN ANALYZE
+SELECT d.id, d.full_name, COUNT(DISTINCT a.patient_id) AS distinct_patients
+FROM appointments a JOIN doctors d ON d.id = a.doctor_id
+WHERE a.appointment_time >= @year_start
+  AND a.appointment_time <  @year_start + INTERVAL 1 YEAR
+GROUP BY d.id, d.full_name
+ORDER BY distinct_patients DESC, d.full_name
+LIMIT 1;
+
+-- 6) Per-doctor day (dashboard path): uses idx_appt_doctor_time ------------------------
+EXPLAIN ANALYZE
+SELECT a.id, a.appointment_time
+FROM appointments a
+WHERE a.doctor_id = 42
+  AND a.appointment_time >= @day
+  AND a.appointment_time <  @day + INTERVAL 1 DAY;
+
+-- Cleanup: DROP DATABASE smart_clinic_bench;
@@ -0,0 +1,92 @@
+// k6 load test: platform-thread vs virtual-thread request execution.
+//
+// Ramps virtual users against a mix of read endpoints that each hold a JDBC connection or a
+// Mongo call (doctor list, dashboard rows, prescription lookup) and reports p99 latency and
+// the highest VU count reached while p99 stayed under the SLO.
+//
+// 1) Platform threads (Java 17, Tomcat pool of 200):
+//      mvn spring-boot:run
+// 2) Virtual threads (Java 21, see application-virtual.properties):
+//      mvn -Pjava21 spring-boot:run -Dspring-boot.run.profiles=virtual \
+//          -Dspring-boot.run.jvmArguments=-Djdk.tracePinnedThreads=short
+//    Any stack printed by -Djdk.tracePinnedThreads is a carrier thread blocked inside a
+//    synchronized block or native frame; those must be fixed before the numbers mean anything.
+//
+// Then, against a warm server with the same seeded database:
+//      k6 run -e BASE_URL=http://localhost:8080 -e EMAIL=<doctor email> -e PASSWORD=<password> \
+//             -e DATE=<yyyy-MM-dd with appointments> -e APPOINTMENT_ID=<id with a prescription> \
+//             src/test/resources/benchmark/virtual_threads_load.js
+//
+// Record both runs on the same hardware (fill in, do not copy numbers across machines):
+//
+//   mode      | max VUs within SLO | p99 at that load | req/s | Hikari pending (max)
+//   ----------+--------------------+------------------+-------+---------------------
+//   platform  |                    |                  |       |
+//   virtual   |                    |                  |       |
+//
+// Hikari pending comes from /actuator/metrics/hikaricp.connections.pending during the run.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const SLO_P99_MS = Number(__ENV.SLO_P99_MS || 500);
+const MAX_VUS = Number(__ENV.MAX_VUS || 2000);
+
+const latency = new Trend('mix_latency', true);
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 10,
+            stages: [
+                { duration: '1m', target: MAX_VUS / 4 },
+                { duration: '1m', target: MAX_VUS / 2 },
+                { duration: '1m', target: MAX_VUS },
+                { duration: '1m', target: MAX_VUS },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    thresholds: {
+        // the run is marked failed once p99 leaves the SLO; the VU count at that point is the result
+        mix_latency: [{ threshold: `p(99)<${SLO_P99_MS}`, abortOnFail: true, delayAbortEval: '20s' }],
+        http_req_failed: ['rate<0.01'],
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/doctor/login`,
+        JSON.stringify({ email: __ENV.EMAIL, password: __ENV.PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'login ok': (r) => r.status === 200 });
+    return { token: res.json('token') };
+}
+
+export default function (data) {
+    const auth = { headers: { Authorization: `Bearer ${data.token}` } };
+    const pick = Math.random();
+    let res;
+    if (pick < 0.4) {
+        res = http.get(`${BASE_URL}/doctor`, { tags: { endpoint: 'doctors' } });
+    } else if (pick < 0.8) {
+        res = http.get(`${BASE_URL}/appointments/${__ENV.DATE}/null`,
+            Object.assign({ tags: { endpoint: 'dashboard' } }, auth));
+    } else {
+        res = http.get(`${BASE_URL}/prescription/${__ENV.APPOINTMENT_ID}`,
+            Object.assign({ tags: { endpoint: 'prescription' } }, auth));
+    }
+    check(res, { 'status 2xx': (r) => r.status >= 200 && r.status < 300 });
+    latency.add(res.timings.duration);
+}
+
+export function handleSummary(data) {
+    const p99 = data.metrics.mix_latency.values['p(99)'];
+    const vus = data.metrics.vus_max ? data.metrics.vus_max.values.max : 0;
+    const reqs = data.metrics.http_reqs.values.rate;
+    const line = `p99=${p99.toFixed(1)}ms maxVUs=${vus} req/s=${reqs.toFixed(1)} slo=${SLO_P99_MS}ms\n`;
+    return { stdout: line };
+}